@@ -1,5 +1,7 @@
 package com.project.back_end.DTO;
 
+import com.project.back_end.models.Appointment;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -16,12 +18,22 @@ public class AppointmentDTO {
     private String patientAddress;
     private LocalDateTime appointmentTime;
     private int status;
+    private int durationMinutes;
 
     // Constructor
     public AppointmentDTO(Long id, Long doctorId, String doctorName,
                           Long patientId, String patientName, String patientEmail,
                           String patientPhone, String patientAddress,
                           LocalDateTime appointmentTime, int status) {
+        this(id, doctorId, doctorName, patientId, patientName, patientEmail,
+                patientPhone, patientAddress, appointmentTime, status, Appointment.DEFAULT_DURATION_MINUTES);
+    }
+
+    // Constructor with explicit appointment length
+    public AppointmentDTO(Long id, Long doctorId, String doctorName,
+                          Long patientId, String patientName, String patientEmail,
+                          String patientPhone, String patientAddress,
+                          LocalDateTime appointmentTime, int status, int durationMinutes) {
         this.id = id;
         this.doctorId = doctorId;
         this.doctorName = doctorName;
@@ -32,6 +44,7 @@ public class AppointmentDTO {
         this.patientAddress = patientAddress;
         this.appointmentTime = appointmentTime;
         this.status = status;
+        this.durationMinutes = durationMinutes;
     }
 
     // Getters
@@ -75,6 +88,10 @@ public class AppointmentDTO {
         return status;
     }
 
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
     // Custom Getters
 
     public LocalDate getAppointmentDate() {
@@ -86,6 +103,6 @@ public class AppointmentDTO {
     }
 
     public LocalDateTime getEndTime() {
-        return appointmentTime != null ? appointmentTime.plusHours(1) : null;
+        return appointmentTime != null ? appointmentTime.plusMinutes(durationMinutes) : null;
     }
 }
@@ -0,0 +1,87 @@
+package com.project.back_end.config;
+
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.DoctorCache;
+import com.project.back_end.services.ExpiringCache;
+import com.project.back_end.services.PrescriptionService;
+import com.project.back_end.services.TokenService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Application meters on top of Spring Boot's HTTP, repository, Hikari, Mongo driver and Hibernate metrics
+@Configuration
+public class MetricsConfig {
+
+    // Tag spring.data.repository.invocations with the backing store so MySQL and Mongo time can be split
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> {
+            Class<?> repository = invocation.getRepositoryInterface();
+            boolean mongo = MongoRepository.class.isAssignableFrom(repository)
+                    || ReactiveMongoRepository.class.isAssignableFrom(repository);
+            return Tags.of(defaults.repositoryTags(invocation)).and("store", mongo ? "mongodb" : "mysql");
+        };
+    }
+
+    // Token validation outcomes, booking conflicts and the in-process caches
+    @Bean
+    public MeterBinder applicationMetrics(TokenService tokenService,
+                                          AppointmentService appointmentService,
+                                          PrescriptionService prescriptionService,
+                                          DoctorCache doctorCache) {
+        return registry -> {
+            tokenService.getValidationOutcomes().forEach((outcome, count) ->
+                    FunctionCounter.builder("auth.token.validations", count, LongAdder::sum)
+                            .description("validateToken calls by outcome")
+                            .tag("outcome", outcome)
+                            .register(registry));
+
+            FunctionCounter.builder("appointments.booking.conflicts", appointmentService, AppointmentService::getBookingConflictCount)
+                    .description("Bookings rejected because the doctor was already booked")
+                    .register(registry);
+            FunctionCounter.builder("appointments.booking.errors", appointmentService, AppointmentService::getBookingErrorCount)
+                    .description("Bookings that failed with an unexpected error")
+                    .register(registry);
+
+            bindCache(registry, "tokens", tokenService.getVerifiedTokenCache());
+            bindCache(registry, "prescriptions", prescriptionService.getPrescriptionCache());
+
+            // Per-region hit and miss counts come from hibernate-micrometer; these are the ratios
+            Gauge.builder("hibernate.second.level.cache.hit.ratio", doctorCache, DoctorCache::getEntityHitRatio)
+                    .tag("region", DoctorCache.REGION)
+                    .register(registry);
+            Gauge.builder("hibernate.query.cache.hit.ratio", doctorCache, DoctorCache::getQueryHitRatio)
+                    .tag("region", DoctorCache.QUERY_REGION)
+                    .register(registry);
+        };
+    }
+
+    // Same meter names and tags as Micrometer's own cache binders
+    private static void bindCache(MeterRegistry registry, String name, ExpiringCache<?, ?> cache) {
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::getHitCount)
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::getMissCount)
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, ExpiringCache::getEvictionCount)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", cache, ExpiringCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
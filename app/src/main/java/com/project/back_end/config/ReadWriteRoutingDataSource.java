@@ -0,0 +1,152 @@
+package com.project.back_end.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sends connections for read-only transactions to a replica, round robin over the replicas that are
+// reachable and within the lag limit, and everything else to the primary. Must sit behind a
+// LazyConnectionDataSourceProxy: the transaction's read-only flag is only set after it begins.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    // Replication lag of the server behind a connection, in seconds
+    @FunctionalInterface
+    public interface LagProbe {
+        long lagSeconds(Connection connection) throws SQLException;
+    }
+
+    // MySQL 8.0.22+: 0 when the server is not a replica, MAX_VALUE when replication is stopped
+    public static final LagProbe MYSQL = connection -> {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return 0L;
+            }
+            long lag = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? Long.MAX_VALUE : lag;
+        }
+    };
+
+    static final class Replica {
+        final String key;
+        final DataSource dataSource;
+        volatile boolean usable = true;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final LagProbe lagProbe;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    // Read-only connections served by a replica, and ones sent to the primary because none was usable
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    // 1. Constructor: maxLagSeconds <= 0 disables lag checks, leaving only reachability
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, LagProbe lagProbe, long maxLagSeconds) {
+        this.lagProbe = lagProbe;
+        this.maxLagSeconds = maxLagSeconds;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicas.get(i));
+            this.replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.usable) {
+                replicaReads.increment();
+                return replica.key;
+            }
+        }
+        fallbacks.increment();
+        return PRIMARY;
+    }
+
+    // 2. Probe every replica and take the unreachable or lagging ones out of rotation until they recover
+    @Scheduled(fixedDelayString = "${datasource.replicas.check-delay-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean usable;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                long lag = maxLagSeconds > 0 ? lagProbe.lagSeconds(connection) : 0L;
+                usable = lag <= maxLagSeconds || maxLagSeconds <= 0;
+                if (!usable) {
+                    log.debug("{} is {}s behind, limit {}s", replica.key, lag, maxLagSeconds);
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.debug("{} unreachable: {}", replica.key, e.getMessage());
+                usable = false;
+            }
+            if (usable != replica.usable) {
+                log.warn("{} {} read rotation", replica.key, usable ? "back in" : "taken out of");
+                replica.usable = usable;
+            }
+        }
+    }
+
+    // 3. Routing counters
+    public long getReplicaReadCount() {
+        return replicaReads.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    public int getUsableReplicaCount() {
+        int usable = 0;
+        for (Replica replica : replicas) {
+            if (replica.usable) {
+                usable++;
+            }
+        }
+        return usable;
+    }
+
+    // Closes the replica pools; the primary belongs to whoever created it
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
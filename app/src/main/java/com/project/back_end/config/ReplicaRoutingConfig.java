@@ -0,0 +1,95 @@
+package com.project.back_end.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read replicas, switched on by listing their JDBC URLs in datasource.replicas.urls. Writes and
+// ordinary transactions stay on spring.datasource.url; @Transactional(readOnly = true) goes to a replica.
+// Reads right after a write may not see it yet, so keep read-your-writes paths in read-write transactions;
+// in-memory index and response caches fill through PrimaryReads for the same reason.
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.urls")
+public class ReplicaRoutingConfig {
+
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    // Replica credentials default to the primary's
+    @Value("${datasource.replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${datasource.replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${datasource.replicas.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    // Replicas further behind than this are skipped until they catch up; 0 checks reachability only
+    @Value("${datasource.replicas.max-lag-seconds:5}")
+    private long maxLagSeconds;
+
+    // The primary pool, configured by the usual spring.datasource.* and spring.datasource.hikari.* keys
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // One read-only pool per replica URL, owned and closed by the routing data source
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, ReadWriteRoutingDataSource.MYSQL, maxLagSeconds);
+    }
+
+    // What JPA and JDBC use; lazy so the routing decision waits for the first statement
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics(ReadWriteRoutingDataSource routing) {
+        return registry -> {
+            FunctionCounter.builder("datasource.routing.reads", routing, ReadWriteRoutingDataSource::getReplicaReadCount)
+                    .description("Read-only connections served by a replica")
+                    .tag("target", "replica")
+                    .register(registry);
+            FunctionCounter.builder("datasource.routing.reads", routing, ReadWriteRoutingDataSource::getFallbackCount)
+                    .description("Read-only connections sent to the primary because no replica was usable")
+                    .tag("target", "primary")
+                    .register(registry);
+            Gauge.builder("datasource.replicas.usable", routing, ReadWriteRoutingDataSource::getUsableReplicaCount)
+                    .register(registry);
+        };
+    }
+}
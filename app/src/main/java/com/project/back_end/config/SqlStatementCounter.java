@@ -0,0 +1,80 @@
+package com.project.back_end.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Counts the SQL statements Hibernate prepares on the current thread while a tally is open
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    // Statements seen during one request (or one test block), with a count per distinct SQL string
+    public static final class Tally {
+        private int statements;
+        private final Map<String, Integer> bySql = new HashMap<>();
+
+        public int getStatements() {
+            return statements;
+        }
+
+        // The most often repeated statement and how often it ran; repeats are the N+1 signature
+        public Map.Entry<String, Integer> getMostRepeated() {
+            return bySql.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+        }
+    }
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+
+    // 1. Register this bean as Hibernate's statement inspector
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    // 2. Called by Hibernate for every statement it prepares; the SQL is passed through unchanged
+    @Override
+    public String inspect(String sql) {
+        Tally tally = CURRENT.get();
+        if (tally != null) {
+            tally.statements++;
+            tally.bySql.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    // 3. Open a tally on this thread, replacing any previous one
+    public Tally start() {
+        Tally tally = new Tally();
+        CURRENT.set(tally);
+        return tally;
+    }
+
+    // 4. Close this thread's tally and return it (null if none was open)
+    public Tally stop() {
+        Tally tally = CURRENT.get();
+        CURRENT.remove();
+        return tally;
+    }
+
+    // 5. Run a block under its own tally and return it; an enclosing tally still sees the statements
+    public Tally count(Runnable block) {
+        Tally outer = CURRENT.get();
+        Tally inner = start();
+        try {
+            block.run();
+        } finally {
+            if (outer != null) {
+                outer.statements += inner.statements;
+                inner.bySql.forEach((sql, n) -> outer.bySql.merge(sql, n, Integer::sum));
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+        return inner;
+    }
+}
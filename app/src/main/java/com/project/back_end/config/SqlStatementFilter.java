@@ -0,0 +1,122 @@
+package com.project.back_end.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Counts SQL statements per request, records them per route and warns when a request
+// goes over budget or repeats one statement often enough to look like an N+1.
+// Only the request thread is counted: a StreamingResponseBody (NDJSON schedule export, bulk import)
+// writes its body on an async worker after the handler returns, so its statements are not in the tally.
+@Component
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Statements";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    private final SqlStatementCounter counter;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${sql.statements.budget:20}")
+    private int budget;
+
+    @Value("${sql.statements.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    // Echo the count in a response header; meant for tests and local profiling
+    @Value("${sql.statements.header:false}")
+    private boolean header;
+
+    // 1. Constructor injection
+    public SqlStatementFilter(SqlStatementCounter counter, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // The async dispatch that ends a streamed response has to release the buffered body
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                ContentCachingResponseWrapper buffered = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+                if (buffered != null) {
+                    buffered.copyBodyToResponse();
+                }
+            }
+            return;
+        }
+
+        // The header has to go out before the body, so buffer the body when it is enabled
+        ContentCachingResponseWrapper buffered = header ? new ContentCachingResponseWrapper(response) : null;
+        counter.start();
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            SqlStatementCounter.Tally tally = counter.stop();
+            if (tally != null) {
+                report(request, response, tally);
+            }
+            // A streamed body is still being written; the async dispatch copies it once it is done
+            if (buffered != null && !isAsyncStarted(request)) {
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, SqlStatementCounter.Tally tally) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        int statements = tally.getStatements();
+
+        if (header) {
+            response.setHeader(HEADER, Integer.toString(statements));
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                    .description("SQL statements prepared per request")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(registry)
+                    .record(statements);
+        }
+
+        if (statements > budget) {
+            log.warn("{} {} ran {} SQL statements (budget {})", request.getMethod(), uri, statements, budget);
+            if (registry != null) {
+                registry.counter("sql.statements.over.budget", "method", request.getMethod(), "uri", uri).increment();
+            }
+        }
+        Map.Entry<String, Integer> repeated = tally.getMostRepeated();
+        if (repeated != null && repeated.getValue() >= repeatThreshold) {
+            log.warn("Possible N+1 in {} {}: statement ran {} times: {}",
+                    request.getMethod(), uri, repeated.getValue(), repeated.getKey());
+            if (registry != null) {
+                registry.counter("sql.statements.repeated", "method", request.getMethod(), "uri", uri).increment();
+            }
+        }
+    }
+}
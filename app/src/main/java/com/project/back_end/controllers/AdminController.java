@@ -1,28 +1,55 @@
 package com.project.back_end.controllers;
 
 import com.project.back_end.models.Admin;
+import com.project.back_end.services.BulkImportService;
 import com.project.back_end.services.Service;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Map;
 
 @RestController
 @RequestMapping("${api.path}admin")
 public class AdminController {
 
     private final Service service;
+    private final BulkImportService bulkImportService;
 
     // 2. Constructor injection for Service dependency
-    public AdminController(Service service) {
+    public AdminController(Service service, BulkImportService bulkImportService) {
         this.service = service;
+        this.bulkImportService = bulkImportService;
     }
 
     // 3. adminLogin method handling POST requests
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> adminLogin(@RequestBody Admin admin) {
+    public ResponseEntity<?> adminLogin(@RequestBody Admin admin) {
         // Delegates validation to service
-        return service.validateAdmin(admin);
+        return service.validateAdmin(admin.getUsername(), admin.getPassword());
+    }
+
+    // 4. Bulk import doctors, patients or appointments from a CSV or NDJSON body (admin only)
+    // Progress is streamed back as one NDJSON line per committed chunk; the token comes from the path or the Authorization header
+    @PostMapping({"/import/{entity}/{token}", "/import/{entity}"})
+    public ResponseEntity<?> bulkImport(
+            @PathVariable String entity,
+            @PathVariable(required = false) String token,
+            @RequestParam(defaultValue = BulkImportService.FORMAT_CSV) String format,
+            HttpServletRequest request) {
+
+        if (service.authorize(token, "admin") == null) {
+            return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
+        }
+        if (!bulkImportService.supports(entity, format)) {
+            return ResponseEntity.badRequest().body("Unsupported entity or format");
+        }
+
+        StreamingResponseBody body = out -> bulkImportService.importStream(entity, format, request.getInputStream(), out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 }
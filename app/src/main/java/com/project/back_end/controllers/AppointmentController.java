@@ -2,83 +2,170 @@ package com.project.back_end.controllers;
 
 import com.project.back_end.models.Appointment;
 import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.AuthPrincipal;
+import com.project.back_end.services.ScheduleExportService;
 import com.project.back_end.services.Service;
 
 import jakarta.validation.Valid;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/appointments")
+// Each token path segment is optional; without it the token comes from the Authorization header
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
     private final Service service;
+    private final ScheduleExportService scheduleExportService;
 
     // 2. Constructor injection of dependencies
-    public AppointmentController(AppointmentService appointmentService, Service service) {
+    public AppointmentController(AppointmentService appointmentService, Service service,
+                                 ScheduleExportService scheduleExportService) {
         this.appointmentService = appointmentService;
         this.service = service;
+        this.scheduleExportService = scheduleExportService;
     }
 
-    // 3. Get appointments by date and patient name, validate token for "doctor"
-    @GetMapping("/{date}/{patientName}/{token}")
+    // 3. Get the calling doctor's appointments by date and patient name ("null" or blank means any patient), validate token for "doctor"
+    @GetMapping({"/{date}/{patientName}/{token}", "/{date}/{patientName}"})
     public ResponseEntity<?> getAppointments(
             @PathVariable String date,
             @PathVariable String patientName,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token) {
 
-        if (!service.validateToken(token, "doctor")) {
+        AuthPrincipal doctor = service.authorize(token, "doctor");
+        if (doctor == null) {
+            return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
+        }
+        Long doctorId = service.userId(doctor);
+        if (doctorId == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
-        return appointmentService.getAppointmentsByDateAndPatientName(date, patientName);
+
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid date: " + date));
+        }
+        String name = "null".equalsIgnoreCase(patientName) ? null : patientName;
+        return ResponseEntity.ok(Map.of("appointments", appointmentService.getAppointments(doctorId, day, name)));
     }
 
     // 4. Book appointment, validate token for "patient"
-    @PostMapping("/book/{token}")
+    @PostMapping({"/book/{token}", "/book"})
     public ResponseEntity<?> bookAppointment(
             @Valid @RequestBody Appointment appointment,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token) {
 
-        if (!service.validateToken(token, "patient")) {
+        if (service.authorize(token, "patient") == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
+        if (appointment.getDoctor() == null || appointment.getDoctor().getId() == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid doctor ID"));
+        }
 
         // Validate appointment availability and doctor existence
-        int validationResult = service.validateAppointment(appointment.getDoctorId(), appointment.getDate(), appointment.getStartTime());
+        int validationResult = service.validateAppointment(appointment);
         if (validationResult == -1) {
-            return ResponseEntity.badRequest().body("Invalid doctor ID");
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid doctor ID"));
         } else if (validationResult == 0) {
-            return ResponseEntity.badRequest().body("Requested time slot is not available");
+            return ResponseEntity.badRequest().body(Map.of("message", "Requested time slot is not available"));
         }
 
-        return appointmentService.bookAppointment(appointment);
+        int result = appointmentService.bookAppointment(appointment);
+        if (result == -1) {
+            return ResponseEntity.status(409).body(Map.of("message", "Doctor already has an appointment at that time."));
+        }
+        if (result == 0) {
+            return ResponseEntity.status(500).body(Map.of("message", "Internal server error while booking appointment."));
+        }
+        return ResponseEntity.status(201).body(Map.of("message", "Appointment booked successfully."));
     }
 
-    // 5. Update appointment, validate token for "patient"
-    @PutMapping("/update/{token}")
+    // 5. Update the caller's appointment (id in the body), validate token for "patient"
+    @PutMapping({"/update/{token}", "/update"})
     public ResponseEntity<?> updateAppointment(
             @Valid @RequestBody Appointment appointment,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token) {
 
-        if (!service.validateToken(token, "patient")) {
+        AuthPrincipal patient = service.authorize(token, "patient");
+        if (patient == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
+        if (appointment.getId() == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Appointment ID is required."));
+        }
 
-        return appointmentService.updateAppointment(appointment);
+        return withStatus(appointmentService.updateAppointment(appointment.getId(), appointment, service.userId(patient)));
     }
 
-    // 6. Cancel appointment, validate token for "patient"
-    @DeleteMapping("/cancel/{appointmentId}/{token}")
+    // 6. Cancel the caller's appointment, validate token for "patient"
+    @DeleteMapping({"/cancel/{appointmentId}/{token}", "/cancel/{appointmentId}"})
     public ResponseEntity<?> cancelAppointment(
             @PathVariable Long appointmentId,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token) {
 
-        if (!service.validateToken(token, "patient")) {
+        AuthPrincipal patient = service.authorize(token, "patient");
+        if (patient == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
 
-        return appointmentService.cancelAppointment(appointmentId);
+        return withStatus(appointmentService.cancelAppointment(appointmentId, service.userId(patient)));
+    }
+
+    // 7. Export a doctor's schedule between two dates (inclusive) as NDJSON, validate token for the doctor themselves or "admin"
+    @GetMapping({"/export/{doctorId}/{from}/{to}/{token}", "/export/{doctorId}/{from}/{to}"})
+    public ResponseEntity<?> exportSchedule(
+            @PathVariable Long doctorId,
+            @PathVariable String from,
+            @PathVariable String to,
+            @PathVariable(required = false) String token) {
+
+        AuthPrincipal doctor = service.authorize(token, "doctor");
+        if (doctor == null && service.authorize(token, "admin") == null) {
+            return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
+        }
+        // Doctors may only export their own schedule; admins any doctor's
+        if (doctor != null && !doctorId.equals(service.userId(doctor))) {
+            return ResponseEntity.status(403).body("Forbidden: not your schedule");
+        }
+
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = LocalDate.parse(from);
+            end = LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Dates must be yyyy-MM-dd");
+        }
+        if (end.isBefore(start)) {
+            return ResponseEntity.badRequest().body("'to' must not be before 'from'");
+        }
+
+        StreamingResponseBody body = out -> scheduleExportService.exportSchedule(doctorId, start, end, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // Map the update/cancel outcome messages of AppointmentService to HTTP statuses
+    private static ResponseEntity<?> withStatus(String message) {
+        int status = switch (message) {
+            case "Appointment not found." -> 404;
+            case "Appointment must start and end on a slot boundary." -> 400;
+            case "Unauthorized update attempt.", "Unauthorized cancellation attempt." -> 403;
+            case "Doctor already has an appointment at that time." -> 409;
+            default -> 200;
+        };
+        return ResponseEntity.status(status).body(Map.of("message", message));
     }
 }
@@ -1,97 +1,157 @@
 package com.project.back_end.controllers;
 
 import com.project.back_end.models.Doctor;
-import com.project.back_end.models.Login;
+import com.project.back_end.DTO.Login;
+import com.project.back_end.services.DoctorDirectoryResponse;
 import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.DoctorSlotIndex;
+import com.project.back_end.services.ETags;
 import com.project.back_end.services.Service;
 
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("${api.path}doctor")
+// Each token path segment is optional; without it the token comes from the Authorization header
 public class DoctorController {
 
     private final DoctorService doctorService;
     private final Service service;
+    private final DoctorDirectoryResponse directoryResponse;
 
-    public DoctorController(DoctorService doctorService, Service service) {
+    public DoctorController(DoctorService doctorService, Service service, DoctorDirectoryResponse directoryResponse) {
         this.doctorService = doctorService;
         this.service = service;
+        this.directoryResponse = directoryResponse;
     }
 
-    // 3. Check doctor availability
-    @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
+    // 3. Check doctor availability; 304 when the doctor-day is unchanged since the client's ETag
+    @GetMapping({"/availability/{user}/{doctorId}/{date}/{token}", "/availability/{user}/{doctorId}/{date}"})
     public ResponseEntity<?> getDoctorAvailability(
             @PathVariable String user,
             @PathVariable Long doctorId,
             @PathVariable String date,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        if (!service.validateToken(token, user)) {
+        if (service.authorize(token, user) == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
 
-        return doctorService.getDoctorAvailability(doctorId, date);
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid date: " + date));
+        }
+        DoctorSlotIndex.Availability availability = doctorService.getAvailability(doctorId, day);
+        if (availability == null) {
+            return ResponseEntity.ok(Map.of("availability", List.of()));
+        }
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (ETags.matches(ifNoneMatch, availability.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(availability.etag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(availability.etag()).cacheControl(cacheControl)
+                .body(Map.of("availability", availability.free()));
     }
 
-    // 4. Get all doctors
+    // 4. Get all doctors (cached, compressed, conditional), or one keyset page when cursor or size is given
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getDoctor() {
-        return ResponseEntity.ok(Map.of("doctors", doctorService.getAllDoctors()));
+    public ResponseEntity<?> getDoctor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        if (cursor == null && size == null) {
+            return directoryResponse.respond(ifNoneMatch, acceptEncoding);
+        }
+        try {
+            return ResponseEntity.ok(doctorService.getDoctorPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
     // 5. Register a new doctor (admin only)
-    @PostMapping("/register/{token}")
+    @PostMapping({"/register/{token}", "/register"})
     public ResponseEntity<?> saveDoctor(
             @Valid @RequestBody Doctor doctor,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token) {
 
-        if (!service.validateToken(token, "admin")) {
+        if (service.authorize(token, "admin") == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
 
-        boolean exists = doctorService.existsByEmailOrPhone(doctor.getEmail(), doctor.getPhone());
-        if (exists) {
-            return ResponseEntity.status(409).body("Doctor already exists");
+        int result = doctorService.saveDoctor(doctor);
+        if (result == -1) {
+            return ResponseEntity.status(409).body(Map.of("message", "Doctor already exists"));
         }
-
-        return doctorService.saveDoctor(doctor);
+        if (result == 0) {
+            return ResponseEntity.status(500).body(Map.of("message", "Some internal error occurred"));
+        }
+        return ResponseEntity.status(201).body(Map.of("message", "Doctor added to db"));
     }
 
     // 6. Doctor login
     @PostMapping("/login")
     public ResponseEntity<?> doctorLogin(@Valid @RequestBody Login login) {
-        return doctorService.validateDoctorLogin(login);
+        String token = doctorService.validateDoctor(login.getEmail(), login.getPassword());
+        if ("Invalid credentials".equals(token)) {
+            return ResponseEntity.status(401).body(Map.of("message", token));
+        }
+        return ResponseEntity.ok(Map.of("token", token));
     }
 
     // 7. Update doctor info (admin only)
-    @PutMapping("/update/{token}")
+    @PutMapping({"/update/{token}", "/update"})
     public ResponseEntity<?> updateDoctor(
             @Valid @RequestBody Doctor doctor,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token) {
 
-        if (!service.validateToken(token, "admin")) {
+        if (service.authorize(token, "admin") == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
 
-        return doctorService.updateDoctor(doctor);
+        int result = doctorService.updateDoctor(doctor);
+        if (result == -1) {
+            return ResponseEntity.status(404).body(Map.of("message", "Doctor not found"));
+        }
+        if (result == 0) {
+            return ResponseEntity.status(500).body(Map.of("message", "Some internal error occurred"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Doctor updated"));
     }
 
     // 8. Delete doctor (admin only)
-    @DeleteMapping("/delete/{doctorId}/{token}")
+    @DeleteMapping({"/delete/{doctorId}/{token}", "/delete/{doctorId}"})
     public ResponseEntity<?> deleteDoctor(
             @PathVariable Long doctorId,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token) {
 
-        if (!service.validateToken(token, "admin")) {
+        if (service.authorize(token, "admin") == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
 
-        return doctorService.deleteDoctor(doctorId);
+        int result = doctorService.deleteDoctor(doctorId);
+        if (result == -1) {
+            return ResponseEntity.status(404).body(Map.of("message", "Doctor not found with id " + doctorId));
+        }
+        if (result == 0) {
+            return ResponseEntity.status(500).body(Map.of("message", "Some internal error occurred"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Doctor deleted successfully"));
     }
 
     // 9. Filter doctors by name, time, and specialty
@@ -101,6 +161,6 @@ public class DoctorController {
             @PathVariable String time,
             @PathVariable String speciality) {
 
-        return ResponseEntity.ok(service.filterDoctor(name, time, speciality));
+        return ResponseEntity.ok(service.filterDoctor(name, speciality, time));
     }
 }
@@ -1,7 +1,8 @@
 package com.project.back_end.controllers;
 
-import com.project.back_end.models.Login;
+import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Patient;
+import com.project.back_end.services.AuthPrincipal;
 import com.project.back_end.services.PatientService;
 import com.project.back_end.services.Service;
 
@@ -13,6 +14,7 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/patient")
+// Each token path segment is optional; without it the token comes from the Authorization header
 public class PatientController {
 
     private final PatientService patientService;
@@ -24,12 +26,15 @@ public class PatientController {
     }
 
     // 3. Get patient details by token
-    @GetMapping("/{token}")
-    public ResponseEntity<?> getPatient(@PathVariable String token) {
-        if (!service.validateToken(token, "patient")) {
+    @GetMapping({"/{token}", ""})
+    public ResponseEntity<?> getPatient(@PathVariable(required = false) String token) {
+        AuthPrincipal patient = service.authorize(token, "patient");
+        if (patient == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
-        return patientService.getPatientByToken(token);
+        return patientService.getPatientDetails(patient.token())
+                .<ResponseEntity<?>>map(p -> ResponseEntity.ok(Map.of("patient", p)))
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("message", "Patient not found")));
     }
 
     // 4. Register a new patient
@@ -37,41 +42,56 @@ public class PatientController {
     public ResponseEntity<?> createPatient(@Valid @RequestBody Patient patient) {
         boolean isValid = service.validatePatient(patient.getEmail(), patient.getPhone());
         if (!isValid) {
-            return ResponseEntity.status(409).body("Patient with given email or phone already exists");
+            return ResponseEntity.status(409).body(Map.of("message", "Patient with given email or phone already exists"));
         }
-        return patientService.savePatient(patient);
+        if (patientService.createPatient(patient) == 0) {
+            return ResponseEntity.status(500).body(Map.of("message", "Internal server error"));
+        }
+        return ResponseEntity.status(201).body(Map.of("message", "Signup successful"));
     }
 
     // 5. Patient login
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody Login login) {
-        return service.validatePatientLogin(login);
+        return service.validatePatientLogin(login.getEmail(), login.getPassword());
     }
 
-    // 6. Get patient appointments by patientId, token and role
-    @GetMapping("/appointments/{patientId}/{token}/{user}")
+    // 6. Get patient appointments by patientId, token and role; paged by keyset when cursor or size is given.
+    // archived=true adds appointments moved to the archive (unpaged form only)
+    @GetMapping({"/appointments/{patientId}/{token}/{user}", "/appointments/{patientId}/{user}"})
     public ResponseEntity<?> getPatientAppointment(
             @PathVariable Long patientId,
-            @PathVariable String token,
-            @PathVariable String user) {
+            @PathVariable(required = false) String token,
+            @PathVariable String user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean archived) {
 
-        if (!service.validateToken(token, user)) {
+        if (service.authorize(token, user) == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
-        return patientService.getAppointments(patientId);
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(Map.of("appointments", patientService.getPatientAppointment(patientId, archived)));
+        }
+        try {
+            return ResponseEntity.ok(patientService.getPatientAppointmentPage(patientId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
-    // 7. Filter patient's appointments by condition and doctor name
-    @GetMapping("/appointments/filter/{condition}/{name}/{token}")
+    // 7. Filter patient's appointments by condition and doctor name; the token is validated here only
+    @GetMapping({"/appointments/filter/{condition}/{name}/{token}", "/appointments/filter/{condition}/{name}"})
     public ResponseEntity<?> filterPatientAppointment(
             @PathVariable String condition,
             @PathVariable String name,
-            @PathVariable String token) {
+            @PathVariable(required = false) String token) {
 
-        if (!service.validateToken(token, "patient")) {
+        AuthPrincipal patient = service.authorize(token, "patient");
+        if (patient == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
 
-        return ResponseEntity.ok(service.filterPatient(condition, name, token));
+        return service.filterPatient(patient, condition, name);
     }
 }
@@ -1,51 +1,87 @@
 package com.project.back_end.controllers;
 
 import com.project.back_end.models.Prescription;
-import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.PrescriptionOutboxService;
 import com.project.back_end.services.PrescriptionService;
 import com.project.back_end.services.Service;
 
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("${api.path}prescription")
+// Each token path segment is optional; without it the token comes from the Authorization header
 public class PrescriptionController {
 
+    private static final int MAX_BATCH = 100;
+
     private final PrescriptionService prescriptionService;
     private final Service service;
-    private final AppointmentService appointmentService;
+    private final PrescriptionOutboxService prescriptionOutboxService;
 
-    public PrescriptionController(PrescriptionService prescriptionService, Service service, AppointmentService appointmentService) {
+    public PrescriptionController(PrescriptionService prescriptionService, Service service, PrescriptionOutboxService prescriptionOutboxService) {
         this.prescriptionService = prescriptionService;
         this.service = service;
-        this.appointmentService = appointmentService;
+        this.prescriptionOutboxService = prescriptionOutboxService;
     }
 
     // 3. Save a new prescription for an appointment
-    @PostMapping("/save/{token}")
-    public ResponseEntity<?> savePrescription(@Valid @RequestBody Prescription prescription, @PathVariable String token) {
-        if (!service.validateToken(token, "doctor")) {
+    @PostMapping({"/save/{token}", "/save"})
+    public ResponseEntity<?> savePrescription(@Valid @RequestBody Prescription prescription, @PathVariable(required = false) String token) {
+        if (service.authorize(token, "doctor") == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
 
-        // Update appointment status before saving prescription
-        boolean updated = appointmentService.updateAppointmentStatus(prescription.getAppointment().getId(), "PRESCRIBED");
-        if (!updated) {
+        // Status update and outbox row commit together; the relay writes the prescription to Mongo
+        int result = prescriptionOutboxService.submit(prescription);
+        if (result == -2) {
             return ResponseEntity.status(400).body("Failed to update appointment status");
         }
-
-        return prescriptionService.savePrescription(prescription);
+        if (result == -1) {
+            return ResponseEntity.status(400).body(Map.of("message", "Prescription already exists for this appointment."));
+        }
+        if (result == 0) {
+            return ResponseEntity.status(500).body(Map.of("error", "Internal server error while saving prescription."));
+        }
+        return ResponseEntity.status(202).body(Map.of("message", "Prescription saved successfully."));
     }
 
     // 4. Retrieve a prescription by appointment ID
-    @GetMapping("/{appointmentId}/{token}")
-    public ResponseEntity<?> getPrescription(@PathVariable Long appointmentId, @PathVariable String token) {
-        if (!service.validateToken(token, "doctor")) {
+    @GetMapping({"/{appointmentId}/{token}", "/{appointmentId}"})
+    public ResponseEntity<?> getPrescription(@PathVariable Long appointmentId, @PathVariable(required = false) String token) {
+        if (service.authorize(token, "doctor") == null) {
             return ResponseEntity.status(401).body("Unauthorized: Invalid or expired token");
         }
 
         return prescriptionService.getPrescription(appointmentId);
     }
+
+    // 5. Non-blocking retrieval by appointment ID; the servlet thread is released while Mongo answers
+    @GetMapping({"/reactive/{appointmentId}/{token}", "/reactive/{appointmentId}"})
+    public Mono<ResponseEntity<?>> getPrescriptionReactive(@PathVariable Long appointmentId, @PathVariable(required = false) String token) {
+        if (service.authorize(token, "doctor") == null) {
+            return Mono.just(ResponseEntity.status(401).body("Unauthorized: Invalid or expired token"));
+        }
+
+        return prescriptionService.getPrescriptionReactive(appointmentId).map(response -> response);
+    }
+
+    // 6. Non-blocking retrieval for several appointments: /reactive/{token}?appointmentIds=1,2,3, or /reactive?appointmentIds=...
+    // with the header; the params condition keeps /reactive/{token} apart from /reactive/{appointmentId}
+    @GetMapping(value = {"/reactive/{token}", "/reactive"}, params = "appointmentIds")
+    public Mono<ResponseEntity<?>> getPrescriptionsReactive(@RequestParam List<Long> appointmentIds, @PathVariable(required = false) String token) {
+        if (service.authorize(token, "doctor") == null) {
+            return Mono.just(ResponseEntity.status(401).body("Unauthorized: Invalid or expired token"));
+        }
+        if (appointmentIds.isEmpty() || appointmentIds.size() > MAX_BATCH) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("message", "Between 1 and " + MAX_BATCH + " appointmentIds are required.")));
+        }
+
+        return prescriptionService.getPrescriptionsReactive(appointmentIds).map(response -> response);
+    }
 }
@@ -4,17 +4,28 @@ import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_appointment_patient_time", columnList = "patient_id, appointment_time, id"),
+        @Index(name = "idx_appointment_doctor_time", columnList = "doctor_id, appointment_time"),
+        @Index(name = "idx_appointment_status_time", columnList = "status, appointment_time")
+})
 public class Appointment {
 
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -37,6 +48,12 @@ public class Appointment {
     @NotNull
     private Integer status;
 
+    // Length of the visit; null until set, so an update can tell "not sent" from "sent".
+    // Rows created before this column existed, and new rows saved without one, read as one hour.
+    @Min(SlotSchedule.SLOT_MINUTES)
+    @Max(720)
+    private Integer durationMinutes;
+
     public Appointment() {}
 
     public Appointment(Doctor doctor, Patient patient, LocalDateTime appointmentTime, Integer status) {
@@ -86,9 +103,49 @@ public class Appointment {
         this.status = status;
     }
 
+    public Integer getDurationMinutes() {
+        return durationMinutes != null ? durationMinutes : DEFAULT_DURATION_MINUTES;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    // Duration exactly as the client sent it, null when it was left out
+    @JsonIgnore
+    public Integer getRequestedDurationMinutes() {
+        return durationMinutes;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        if (durationMinutes == null) {
+            durationMinutes = DEFAULT_DURATION_MINUTES;
+        }
+        if (!onSlotBoundaries(appointmentTime, durationMinutes)) {
+            throw new IllegalArgumentException("Appointment must start and end on a slot boundary: "
+                    + appointmentTime + " for " + durationMinutes + " minutes");
+        }
+    }
+
+    // Slot claims and availability work in whole slots, so a visit may not start or end inside one
+    @JsonIgnore
+    @Transient
+    @AssertTrue(message = "appointmentTime and durationMinutes must fall on " + SlotSchedule.SLOT_MINUTES + "-minute slot boundaries")
+    public boolean isOnSlotBoundaries() {
+        return appointmentTime == null || onSlotBoundaries(appointmentTime, getDurationMinutes());
+    }
+
+    public static boolean onSlotBoundaries(LocalDateTime start, int durationMinutes) {
+        return start.getSecond() == 0 && start.getNano() == 0
+                && start.getMinute() % SlotSchedule.SLOT_MINUTES == 0
+                && durationMinutes % SlotSchedule.SLOT_MINUTES == 0;
+    }
+
     @Transient
     public LocalDateTime getEndTime() {
-        return appointmentTime.plusHours(1);
+        return appointmentTime.plusMinutes(getDurationMinutes());
     }
 
     @Transient
@@ -0,0 +1,70 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+// One row per fixed-size slot an appointment occupies; the unique key makes double-booking impossible
+@Entity
+@Table(name = "appointment_slot",
+        uniqueConstraints = @UniqueConstraint(name = "uk_doctor_slot", columnNames = {"doctor_id", "slot_start"}),
+        indexes = @Index(name = "idx_slot_appointment", columnList = "appointment_id"))
+public class AppointmentSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @NotNull
+    @Column(name = "slot_start", nullable = false)
+    private LocalDateTime slotStart;
+
+    @NotNull
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    public AppointmentSlot() {}
+
+    public AppointmentSlot(Long doctorId, LocalDateTime slotStart, Long appointmentId) {
+        this.doctorId = doctorId;
+        this.slotStart = slotStart;
+        this.appointmentId = appointmentId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getSlotStart() {
+        return slotStart;
+    }
+
+    public void setSlotStart(LocalDateTime slotStart) {
+        this.slotStart = slotStart;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+}
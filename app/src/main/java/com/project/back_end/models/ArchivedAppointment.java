@@ -0,0 +1,78 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Completed appointments moved out of the hot appointment table by AppointmentArchiveService.
+// Ids are kept, so prescriptions still find their appointment; doctor and patient are plain
+// columns (no foreign keys) so archived history never blocks writes on the hot tables.
+@Entity
+@Table(name = "appointment_archive", indexes = {
+        @Index(name = "idx_archive_patient_time", columnList = "patient_id, appointment_time, id"),
+        @Index(name = "idx_archive_doctor_time", columnList = "doctor_id, appointment_time")
+})
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Doctor doctor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Patient patient;
+
+    private LocalDateTime appointmentTime;
+
+    private Integer status;
+
+    private Integer durationMinutes;
+
+    private LocalDateTime archivedAt;
+
+    public ArchivedAppointment() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public LocalDate getAppointmentDate() {
+        return appointmentTime.toLocalDate();
+    }
+
+    // Detached Appointment view for callers that work with the hot entity; never save it
+    public Appointment toAppointment() {
+        Appointment appointment = new Appointment(doctor, patient, appointmentTime, status);
+        appointment.setId(id);
+        appointment.setDurationMinutes(durationMinutes != null ? durationMinutes : Appointment.DEFAULT_DURATION_MINUTES);
+        return appointment;
+    }
+}
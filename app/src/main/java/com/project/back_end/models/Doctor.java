@@ -2,11 +2,23 @@ package com.project.back_end.models;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+// Second-level cached with its inline slot schedule; see DoctorCache for eviction and hit ratios
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctor")
 public class Doctor {
 
     @Id
@@ -34,8 +46,20 @@ public class Doctor {
     @Pattern(regexp = "^[0-9]{10}$")
     private String phone;
 
-    @ElementCollection
-    private List<String> availableTimes;
+    // Weekly slot template plus date exceptions as bitmasks, stored inline on the doctor row
+    @Convert(converter = SlotScheduleConverter.class)
+    @Column(name = "slot_schedule", length = 2048)
+    private SlotSchedule schedule = SlotSchedule.EMPTY;
+
+    // Schedule parts set through the JSON setters, null when absent; not persisted
+    @Transient
+    private List<String> requestedTimes;
+
+    @Transient
+    private Map<DayOfWeek, List<String>> requestedWeekdays;
+
+    @Transient
+    private Map<LocalDate, List<String>> requestedExceptions;
 
     public Doctor() {}
 
@@ -45,7 +69,7 @@ public class Doctor {
         this.email = email;
         this.password = password;
         this.phone = phone;
-        this.availableTimes = availableTimes;
+        setAvailableTimes(availableTimes);
     }
 
     public Long getId() {
@@ -96,12 +120,78 @@ public class Doctor {
         this.phone = phone;
     }
 
+    @JsonIgnore
+    public SlotSchedule getSchedule() {
+        return schedule != null ? schedule : SlotSchedule.EMPTY;
+    }
+
+    public void setSchedule(SlotSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    // Slot labels such as "09:00-10:00"; setting them applies the same slots to every weekday.
+    // Date exceptions are kept, and weekday overrides from the same request still win whatever the JSON order.
     public List<String> getAvailableTimes() {
-        return availableTimes;
+        return getSchedule().weeklyLabels();
     }
 
     public void setAvailableTimes(List<String> availableTimes) {
-        this.availableTimes = availableTimes;
+        this.requestedTimes = availableTimes;
+        this.schedule = mergeSchedule(getSchedule());
+    }
+
+    // Per-weekday labels, only serialized when the weekdays differ; days present replace that day's template
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<DayOfWeek, List<String>> getWeeklyAvailability() {
+        return getSchedule().isUniform() ? Map.of() : getSchedule().weeklyTemplate();
+    }
+
+    public void setWeeklyAvailability(Map<DayOfWeek, List<String>> weeklyAvailability) {
+        if (weeklyAvailability != null) {
+            if (requestedWeekdays == null) {
+                requestedWeekdays = new EnumMap<>(DayOfWeek.class);
+            }
+            requestedWeekdays.putAll(weeklyAvailability);
+        }
+        this.schedule = mergeSchedule(getSchedule());
+    }
+
+    // Date overrides of the weekly template; an empty list marks the doctor unavailable that day
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<LocalDate, List<String>> getAvailabilityExceptions() {
+        Map<LocalDate, List<String>> exceptions = new TreeMap<>();
+        getSchedule().getExceptions().forEach((date, day) -> exceptions.put(date, day.labels()));
+        return exceptions;
+    }
+
+    // Replaces all exceptions; past dates are dropped
+    public void setAvailabilityExceptions(Map<LocalDate, List<String>> availabilityExceptions) {
+        this.requestedExceptions = availabilityExceptions != null ? availabilityExceptions : Map.of();
+        this.schedule = mergeSchedule(getSchedule());
+    }
+
+    // The given schedule with only the parts this object was asked to change: availableTimes (ignored when it
+    // just echoes the stored labels), then weekday overrides, then exceptions. Used by updates so a body that
+    // omits weeklyAvailability or availabilityExceptions keeps the stored ones.
+    public SlotSchedule mergeSchedule(SlotSchedule stored) {
+        SlotSchedule merged = stored;
+        if (requestedTimes != null && !requestedTimes.equals(stored.weeklyLabels())) {
+            merged = merged.withWeekly(requestedTimes);
+        }
+        if (requestedWeekdays != null) {
+            for (Map.Entry<DayOfWeek, List<String>> day : requestedWeekdays.entrySet()) {
+                merged = merged.withWeekday(day.getKey(), day.getValue());
+            }
+        }
+        if (requestedExceptions != null) {
+            for (LocalDate date : merged.getExceptions().keySet()) {
+                merged = merged.withException(date, null);
+            }
+            for (Map.Entry<LocalDate, List<String>> exception : requestedExceptions.entrySet()) {
+                merged = merged.withException(exception.getKey(), exception.getValue() != null ? exception.getValue() : List.of());
+            }
+        }
+        return merged.withoutExceptionsBefore(LocalDate.now());
     }
 
 }
@@ -1,6 +1,7 @@
 package com.project.back_end.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.*;
 
@@ -14,7 +15,9 @@ public class Prescription {
     @Size(min = 3, max = 100)
     private String patientName;
 
+    // At most one prescription per appointment, enforced by the unique index
     @NotNull
+    @Indexed(unique = true)
     private Long appointmentId;
 
     @NotNull
@@ -0,0 +1,290 @@
+package com.project.back_end.models;
+
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// A doctor's bookable slots as bitmasks: one bit per 30-minute slot, a weekly template per weekday
+// and date exceptions that replace the template for one day. Immutable; the with* methods copy.
+public final class SlotSchedule {
+
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final long DAY_MASK = (1L << SLOTS_PER_DAY) - 1;
+    public static final long AM_MASK = (1L << (SLOTS_PER_DAY / 2)) - 1;
+    public static final long PM_MASK = DAY_MASK & ~AM_MASK;
+
+    // offered: slots the doctor works; starts: first slot of each bookable unit ("09:00-10:00" is one unit of two slots)
+    public record Day(long offered, long starts) {
+
+        public static final Day CLOSED = new Day(0L, 0L);
+
+        // Units as masks, in time order; a unit runs from its start bit to the next start or the first unoffered slot
+        public long[] units() {
+            long[] units = new long[Long.bitCount(starts)];
+            int n = 0;
+            for (long s = starts; s != 0; s &= s - 1) {
+                int from = Long.numberOfTrailingZeros(s);
+                int to = from + 1;
+                while (to < SLOTS_PER_DAY && (offered >>> to & 1) == 1 && (starts >>> to & 1) == 0) {
+                    to++;
+                }
+                units[n++] = span(from, to);
+            }
+            return units;
+        }
+
+        public List<String> labels() {
+            List<String> labels = new ArrayList<>();
+            for (long unit : units()) {
+                labels.add(label(unit));
+            }
+            return labels;
+        }
+
+        static Day of(List<String> labels) {
+            long offered = 0L;
+            long starts = 0L;
+            if (labels != null) {
+                for (String label : labels) {
+                    long unit = parseLabel(label);
+                    offered |= unit;
+                    starts |= Long.lowestOneBit(unit);
+                }
+            }
+            return new Day(offered, starts);
+        }
+    }
+
+    public static final SlotSchedule EMPTY = new SlotSchedule(filled(Day.CLOSED), Collections.emptyNavigableMap());
+
+    private static final byte FORMAT = 1;
+
+    // Indexed by DayOfWeek.getValue() - 1
+    private final Day[] weekly;
+    private final NavigableMap<LocalDate, Day> exceptions;
+
+    private SlotSchedule(Day[] weekly, NavigableMap<LocalDate, Day> exceptions) {
+        this.weekly = weekly;
+        this.exceptions = exceptions;
+    }
+
+    // 1. The same slot labels on every day of the week (the original availableTimes meaning)
+    public static SlotSchedule daily(List<String> labels) {
+        return new SlotSchedule(filled(Day.of(labels)), Collections.emptyNavigableMap());
+    }
+
+    // 1a. The same slot labels on every weekday, keeping the date exceptions
+    public SlotSchedule withWeekly(List<String> labels) {
+        return new SlotSchedule(filled(Day.of(labels)), exceptions);
+    }
+
+    // 2. Replace one weekday's template
+    public SlotSchedule withWeekday(DayOfWeek day, List<String> labels) {
+        Day[] copy = weekly.clone();
+        copy[day.getValue() - 1] = Day.of(labels);
+        return new SlotSchedule(copy, exceptions);
+    }
+
+    // 3. Override one date; an empty list closes the day, null removes the override
+    public SlotSchedule withException(LocalDate date, List<String> labels) {
+        NavigableMap<LocalDate, Day> copy = new TreeMap<>(exceptions);
+        if (labels == null) {
+            copy.remove(date);
+        } else {
+            copy.put(date, Day.of(labels));
+        }
+        return new SlotSchedule(weekly, Collections.unmodifiableNavigableMap(copy));
+    }
+
+    // 4. Drop overrides for dates before the given day
+    public SlotSchedule withoutExceptionsBefore(LocalDate date) {
+        if (exceptions.isEmpty() || !exceptions.firstKey().isBefore(date)) {
+            return this;
+        }
+        return new SlotSchedule(weekly, Collections.unmodifiableNavigableMap(new TreeMap<>(exceptions.tailMap(date, true))));
+    }
+
+    // 5. Slots for a concrete date: the override if there is one, otherwise the weekday template
+    public Day dayFor(LocalDate date) {
+        Day exception = exceptions.get(date);
+        return exception != null ? exception : weekly[date.getDayOfWeek().getValue() - 1];
+    }
+
+    public Day weekday(DayOfWeek day) {
+        return weekly[day.getValue() - 1];
+    }
+
+    public NavigableMap<LocalDate, Day> getExceptions() {
+        return exceptions;
+    }
+
+    // 6. Every slot offered on some weekday, for AM/PM filtering
+    public long weeklyOffered() {
+        long all = 0L;
+        for (Day day : weekly) {
+            all |= day.offered();
+        }
+        return all;
+    }
+
+    // 7. Does the weekly template offer any slot in the mask (AM_MASK, PM_MASK, ...)?
+    public boolean offersAny(long mask) {
+        return (weeklyOffered() & mask) != 0;
+    }
+
+    public boolean isUniform() {
+        for (Day day : weekly) {
+            if (!day.equals(weekly[0])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 8. Distinct unit labels across the week, ordered by start then length
+    public List<String> weeklyLabels() {
+        if (isUniform()) {
+            return weekly[0].labels();
+        }
+        Set<Long> units = new TreeSet<>(Comparator
+                .comparingInt((Long unit) -> Long.numberOfTrailingZeros(unit))
+                .thenComparingInt(Long::bitCount));
+        for (Day day : weekly) {
+            for (long unit : day.units()) {
+                units.add(unit);
+            }
+        }
+        List<String> labels = new ArrayList<>(units.size());
+        for (long unit : units) {
+            labels.add(label(unit));
+        }
+        return labels;
+    }
+
+    // 9. Per-weekday labels
+    public Map<DayOfWeek, List<String>> weeklyTemplate() {
+        Map<DayOfWeek, List<String>> template = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            template.put(day, weekday(day).labels());
+        }
+        return template;
+    }
+
+    // Binary form stored inline on the doctor row: format byte, 7 x (offered, starts) as 48-bit values,
+    // then a count and (epochDay, offered, starts) per exception. 87 bytes plus 16 per exception.
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 7 * 12 + 2 + exceptions.size() * 16);
+        buffer.put(FORMAT);
+        for (Day day : weekly) {
+            put48(buffer, day.offered());
+            put48(buffer, day.starts());
+        }
+        buffer.putShort((short) exceptions.size());
+        exceptions.forEach((date, day) -> {
+            buffer.putInt((int) date.toEpochDay());
+            put48(buffer, day.offered());
+            put48(buffer, day.starts());
+        });
+        return buffer.array();
+    }
+
+    public static SlotSchedule decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return EMPTY;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        if (format != FORMAT) {
+            throw new IllegalArgumentException("Unknown slot schedule format " + format);
+        }
+        Day[] weekly = new Day[7];
+        for (int i = 0; i < 7; i++) {
+            weekly[i] = new Day(get48(buffer), get48(buffer));
+        }
+        int count = buffer.getShort() & 0xFFFF;
+        NavigableMap<LocalDate, Day> exceptions = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            LocalDate date = LocalDate.ofEpochDay(buffer.getInt());
+            exceptions.put(date, new Day(get48(buffer), get48(buffer)));
+        }
+        return new SlotSchedule(weekly, Collections.unmodifiableNavigableMap(exceptions));
+    }
+
+    // "09:00-10:00" covers [09:00, 10:00); a bare "09:00" covers one hour; an end at or before the start runs to midnight
+    public static long parseLabel(String label) {
+        String[] parts = label.trim().split("-");
+        LocalTime start = LocalTime.parse(parts[0].trim());
+        LocalTime end = parts.length > 1 ? LocalTime.parse(parts[1].trim()) : start.plusHours(1);
+        long mask = mask(start, end);
+        if (mask == 0) {
+            throw new IllegalArgumentException("Empty slot: " + label);
+        }
+        return mask;
+    }
+
+    // Bits [start slot, end slot) with the end rounded up; an end at or before start runs to midnight
+    public static long mask(LocalTime start, LocalTime end) {
+        int from = start.toSecondOfDay() / 60 / SLOT_MINUTES;
+        int endMinutes = end.toSecondOfDay() / 60;
+        int to = end.isAfter(start) ? (endMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES : SLOTS_PER_DAY;
+        return to <= from ? 0L : span(from, to);
+    }
+
+    // "HH:mm-HH:mm" for a contiguous mask; a unit ending at midnight ends in "00:00"
+    public static String label(long unit) {
+        int from = Long.numberOfTrailingZeros(unit);
+        int to = 64 - Long.numberOfLeadingZeros(unit);
+        return time(from) + "-" + time(to % SLOTS_PER_DAY);
+    }
+
+    private static String time(int slot) {
+        int minutes = slot * SLOT_MINUTES;
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private static long span(int from, int to) {
+        long width = to - from;
+        return (width >= 64 ? -1L : ((1L << width) - 1)) << from;
+    }
+
+    private static Day[] filled(Day day) {
+        Day[] days = new Day[7];
+        Arrays.fill(days, day);
+        return days;
+    }
+
+    private static void put48(ByteBuffer buffer, long value) {
+        buffer.putShort((short) (value >>> 32));
+        buffer.putInt((int) value);
+    }
+
+    private static long get48(ByteBuffer buffer) {
+        long high = buffer.getShort() & 0xFFFFL;
+        long low = buffer.getInt() & 0xFFFFFFFFL;
+        return high << 32 | low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof SlotSchedule other
+                && Arrays.equals(weekly, other.weekly) && exceptions.equals(other.exceptions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(weekly) + exceptions.hashCode();
+    }
+}
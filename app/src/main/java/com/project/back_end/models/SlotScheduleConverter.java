@@ -0,0 +1,21 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+// Stores a SlotSchedule as a small VARBINARY on the owning row; SlotSchedule is immutable so no deep copies
+@Converter
+@Immutable
+public class SlotScheduleConverter implements AttributeConverter<SlotSchedule, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(SlotSchedule schedule) {
+        return schedule != null ? schedule.encode() : null;
+    }
+
+    @Override
+    public SlotSchedule convertToEntityAttribute(byte[] bytes) {
+        return SlotSchedule.decode(bytes);
+    }
+}
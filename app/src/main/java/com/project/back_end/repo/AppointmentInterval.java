@@ -0,0 +1,13 @@
+package com.project.back_end.repo;
+
+import java.time.LocalDateTime;
+
+// Interface projection with just the columns needed for overlap checks
+public interface AppointmentInterval {
+
+    Long getId();
+
+    LocalDateTime getAppointmentTime();
+
+    Integer getDurationMinutes();
+}
@@ -1,22 +1,31 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
-    // 1. Find all appointments for a specific doctor within a time range
+    // 1. Find all appointments for a specific doctor within a time range (doctor and patient joined in the same query)
+    @EntityGraph(attributePaths = {"doctor", "patient"})
     List<Appointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
 
     // 2. Find appointments by doctor ID, patient name (case-insensitive, partial match), and time range
+    @EntityGraph(attributePaths = {"doctor", "patient"})
     List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
             Long doctorId, String patientName, LocalDateTime start, LocalDateTime end);
 
@@ -39,9 +48,53 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT a FROM Appointment a WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND a.patient.id = :patientId AND a.status = :status")
     List<Appointment> filterByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status);
 
-    // 8. Update status of a specific appointment
+    // 8. Update status of a specific appointment, returning the number of rows changed
     @Modifying
     @Transactional
     @Query("UPDATE Appointment a SET a.status = :status WHERE a.id = :id")
-    void updateStatus(int status, long id);
+    int updateStatus(int status, long id);
+
+    // 9. Start times and durations of a doctor's appointments from a given time on
+    List<AppointmentInterval> findIntervalsByDoctorIdAndAppointmentTimeGreaterThanEqual(Long doctorId, LocalDateTime from);
+
+    // DTO projections: one joined SELECT per listing, no entity hydration and no per-row doctor/patient loads
+    String DTO_SELECT = "SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, COALESCE(a.durationMinutes, 60)) "
+            + "FROM Appointment a JOIN a.doctor d JOIN a.patient p ";
+
+    // 10. All appointments for a patient as DTOs
+    @Query(DTO_SELECT + "WHERE p.id = :patientId ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtoByPatientId(Long patientId);
+
+    // 11. Patient appointments with a given status as DTOs, ordered by time
+    @Query(DTO_SELECT + "WHERE p.id = :patientId AND a.status = :status ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtoByPatientIdAndStatus(Long patientId, int status);
+
+    // 12. Patient appointments filtered by doctor name as DTOs
+    @Query(DTO_SELECT + "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND p.id = :patientId "
+            + "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> filterDtoByDoctorNameAndPatientId(String doctorName, Long patientId);
+
+    // 13. Patient appointments filtered by doctor name and status as DTOs
+    @Query(DTO_SELECT + "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND p.id = :patientId "
+            + "AND a.status = :status ORDER BY a.appointmentTime")
+    List<AppointmentDTO> filterDtoByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status);
+
+    // 14. First keyset page of a patient's appointments, ordered by (appointmentTime, id)
+    @Query(DTO_SELECT + "WHERE p.id = :patientId ORDER BY a.appointmentTime, a.id")
+    List<AppointmentDTO> findDtoFirstPageByPatientId(Long patientId, Limit limit);
+
+    // 15. Next keyset page strictly after the (appointmentTime, id) of the previous page's last row
+    @Query(DTO_SELECT + "WHERE p.id = :patientId AND (a.appointmentTime > :afterTime "
+            + "OR (a.appointmentTime = :afterTime AND a.id > :afterId)) ORDER BY a.appointmentTime, a.id")
+    List<AppointmentDTO> findDtoPageByPatientId(Long patientId, LocalDateTime afterTime, Long afterId, Limit limit);
+
+    // 16. Forward-only stream of a doctor's schedule in [from, to); must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + "WHERE d.id = :doctorId AND a.appointmentTime >= :from AND a.appointmentTime < :to "
+            + "ORDER BY a.appointmentTime, a.id")
+    Stream<AppointmentDTO> streamDtoByDoctorIdAndTimeRange(Long doctorId, LocalDateTime from, LocalDateTime to);
 }
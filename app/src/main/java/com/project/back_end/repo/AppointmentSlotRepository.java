@@ -0,0 +1,27 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.AppointmentSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, Long> {
+
+    // 1. Release every slot held by an appointment
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AppointmentSlot s WHERE s.appointmentId = :appointmentId")
+    void releaseByAppointmentId(Long appointmentId);
+
+    // 2. Release every slot held by a doctor
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AppointmentSlot s WHERE s.doctorId = :doctorId")
+    void releaseByDoctorId(Long doctorId);
+
+    // 3. Count slots held by an appointment
+    long countByAppointmentId(Long appointmentId);
+}
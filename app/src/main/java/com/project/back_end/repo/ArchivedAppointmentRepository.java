@@ -0,0 +1,60 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.ArchivedAppointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Read side of the appointment archive; rows only arrive through AppointmentArchiveService and all have status 1
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    // Same DTO shape as AppointmentRepository.DTO_SELECT
+    String DTO_SELECT = "SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, COALESCE(a.durationMinutes, 60)) "
+            + "FROM ArchivedAppointment a JOIN a.doctor d JOIN a.patient p ";
+
+    // 1. Archived appointments for a doctor within a time range (doctor and patient joined in the same query)
+    @EntityGraph(attributePaths = {"doctor", "patient"})
+    List<ArchivedAppointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
+
+    // 2. Archived appointments by doctor ID, patient name (case-insensitive, partial match), and time range
+    @EntityGraph(attributePaths = {"doctor", "patient"})
+    List<ArchivedAppointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+            Long doctorId, String patientName, LocalDateTime start, LocalDateTime end);
+
+    // 3. A patient's archived appointments as DTOs
+    @Query(DTO_SELECT + "WHERE p.id = :patientId ORDER BY a.appointmentTime, a.id")
+    List<AppointmentDTO> findDtoByPatientId(Long patientId);
+
+    // 4. A patient's archived appointments filtered by doctor name as DTOs
+    @Query(DTO_SELECT + "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND p.id = :patientId "
+            + "ORDER BY a.appointmentTime, a.id")
+    List<AppointmentDTO> filterDtoByDoctorNameAndPatientId(String doctorName, Long patientId);
+
+    // 5. A doctor's archived appointments in [from, to) as DTOs, streamed like AppointmentRepository.streamDtoByDoctorIdAndTimeRange
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + "WHERE d.id = :doctorId AND a.appointmentTime >= :from AND a.appointmentTime < :to "
+            + "ORDER BY a.appointmentTime, a.id")
+    Stream<AppointmentDTO> streamDtoByDoctorIdAndTimeRange(Long doctorId, LocalDateTime from, LocalDateTime to);
+
+    // 6. Delete a doctor's archived history
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArchivedAppointment a WHERE a.doctor.id = :doctorId")
+    int deleteAllByDoctorId(Long doctorId);
+}
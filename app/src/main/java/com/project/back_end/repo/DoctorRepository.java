@@ -1,23 +1,39 @@
 package com.project.back_end.repo;
 
 import com.project.back_end.models.Doctor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
+// Finders 1-4 go through the query cache (region "doctor-queries"); any write to the doctor table invalidates it
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
     // 1. Find a doctor by email
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "doctor-queries")})
     Doctor findByEmail(String email);
 
     // 2. Find doctors with names like the given string (case-sensitive)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "doctor-queries")})
     List<Doctor> findByNameLike(String name);
 
     // 3. Find doctors by name containing (case-insensitive) and specialty (case-insensitive)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "doctor-queries")})
     List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(String name, String specialty);
 
     // 4. Find doctors by specialty (case-insensitive)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "doctor-queries")})
     List<Doctor> findBySpecialtyIgnoreCase(String specialty);
+
+    // 5. Keyset page of doctors after a given id, in primary-key order
+    List<Doctor> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
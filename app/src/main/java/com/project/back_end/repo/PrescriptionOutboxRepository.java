@@ -0,0 +1,22 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.PrescriptionOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PrescriptionOutboxRepository extends JpaRepository<PrescriptionOutbox, Long> {
+
+    // 1. Oldest entries in a status that are due for a (re)try
+    List<PrescriptionOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(String status, LocalDateTime now, Limit limit);
+
+    // 2. Which of these appointments already have an entry, in any status
+    @Query("SELECT o.appointmentId FROM PrescriptionOutbox o WHERE o.appointmentId IN :appointmentIds")
+    List<Long> findAppointmentIdsIn(Collection<Long> appointmentIds);
+}
@@ -0,0 +1,19 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Prescription;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+// Non-blocking twin of PrescriptionRepository for the read endpoints; writes stay on the blocking outbox path
+@Repository
+public interface ReactivePrescriptionRepository extends ReactiveMongoRepository<Prescription, String> {
+
+    // 1. Find prescriptions by appointment ID
+    Flux<Prescription> findByAppointmentId(Long appointmentId);
+
+    // 2. Find prescriptions for several appointments in one query
+    Flux<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds);
+}
@@ -0,0 +1,111 @@
+package com.project.back_end.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Keeps the appointment table to its working set: completed appointments (status 1) older than the
+// retention window move to appointment_archive in small batches, each its own transaction, so the
+// mover never holds many locks or one long transaction. Reads consult the archive only for ranges
+// that start before horizon().
+@Service
+public class AppointmentArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentArchiveService.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Completed appointments stay in the hot table this many days after they took place
+    @Value("${appointments.archive.retention-days:90}")
+    private int retentionDays;
+
+    // Rows moved per transaction
+    @Value("${appointments.archive.batch-size:1000}")
+    private int batchSize;
+
+    // Pause between batches so the mover does not monopolize the primary or outrun replication
+    @Value("${appointments.archive.pause-ms:100}")
+    private long pauseMs;
+
+    @Value("${appointments.archive.enabled:true}")
+    private boolean enabled;
+
+    // 1. Constructor injection
+    public AppointmentArchiveService(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // 2. Start of the oldest day still guaranteed to be in the hot table. The cutoff only moves
+    // forward, so a range starting at or after this never needs the archive. At least one day back,
+    // so nothing the slot and interval indexes still cache is ever moved.
+    public LocalDateTime horizon() {
+        return LocalDate.now().minusDays(Math.max(retentionDays, 1)).atStartOfDay();
+    }
+
+    // 3. Whether a read starting at this time has to include the archive
+    public boolean reachesArchive(LocalDateTime from) {
+        return from == null || from.isBefore(horizon());
+    }
+
+    // 4. Scheduled run: move batches until none are left; returns the number of appointments moved
+    @Scheduled(cron = "${appointments.archive.cron:0 30 3 * * *}")
+    public long archive() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime cutoff = horizon();
+        long moved = 0;
+        while (true) {
+            int batch = moveBatch(cutoff);
+            moved += batch;
+            if (batch < batchSize) {
+                break;
+            }
+            if (pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (moved > 0) {
+            log.info("Archived {} appointments before {}", moved, cutoff);
+        }
+        return moved;
+    }
+
+    // 5. One batch in one transaction: lock the oldest eligible rows, copy them, then remove them and their slot claims
+    int moveBatch(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM appointment WHERE status = 1 AND appointment_time < :cutoff "
+                            + "ORDER BY appointment_time, id LIMIT :limit FOR UPDATE",
+                    new MapSqlParameterSource("cutoff", cutoff).addValue("limit", batchSize), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("now", LocalDateTime.now());
+            jdbcTemplate.update("INSERT INTO appointment_archive "
+                    + "(id, doctor_id, patient_id, appointment_time, status, duration_minutes, archived_at) "
+                    + "SELECT id, doctor_id, patient_id, appointment_time, status, COALESCE(duration_minutes, 60), :now "
+                    + "FROM appointment WHERE id IN (:ids)", params);
+            jdbcTemplate.update("DELETE FROM appointment_slot WHERE appointment_id IN (:ids)", params);
+            jdbcTemplate.update("DELETE FROM appointment WHERE id IN (:ids)", params);
+            return ids.size();
+        });
+        return moved != null ? moved : 0;
+    }
+}
@@ -0,0 +1,140 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.repo.AppointmentInterval;
+import com.project.back_end.repo.AppointmentRepository;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-doctor interval index over upcoming appointments for O(log n) overlap checks
+@Component
+public class AppointmentIntervalIndex {
+
+    record Interval(Long id, LocalDateTime start, LocalDateTime end) {}
+
+    private static final Comparator<Interval> BY_START = Comparator
+            .comparing(Interval::start)
+            .thenComparing(Interval::id);
+
+    // Intervals for one doctor, ordered by start time, with the longest duration seen
+    // so a query only has to look back that far for intervals that started earlier
+    static final class Schedule {
+        private final NavigableSet<Interval> byStart = new TreeSet<>(BY_START);
+        private final Map<Long, Interval> byId = new HashMap<>();
+        private long maxDurationMinutes = Appointment.DEFAULT_DURATION_MINUTES;
+
+        synchronized void put(Interval interval) {
+            remove(interval.id());
+            byStart.add(interval);
+            byId.put(interval.id(), interval);
+            long minutes = Duration.between(interval.start(), interval.end()).toMinutes();
+            maxDurationMinutes = Math.max(maxDurationMinutes, minutes);
+        }
+
+        synchronized void remove(Long id) {
+            Interval old = byId.remove(id);
+            if (old != null) {
+                byStart.remove(old);
+            }
+        }
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end, Long ignoreId) {
+            Interval from = new Interval(Long.MIN_VALUE, start.minusMinutes(maxDurationMinutes), null);
+            Interval to = new Interval(Long.MIN_VALUE, end, null);
+            for (Interval i : byStart.subSet(from, true, to, false)) {
+                if (!i.id().equals(ignoreId) && i.start().isBefore(end) && i.end().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final AppointmentRepository appointmentRepository;
+    private final Map<Long, Schedule> schedules = new ConcurrentHashMap<>();
+    // Bumped for a doctor on every committed change so a load racing with one is not kept
+    private final ChangeStamps changes = new ChangeStamps();
+
+    // 1. Constructor injection
+    public AppointmentIntervalIndex(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    // 2. Does [start, end) overlap any of the doctor's appointments other than ignoreId?
+    public boolean hasOverlap(Long doctorId, LocalDateTime start, LocalDateTime end, Long ignoreId) {
+        return schedule(doctorId).overlaps(start, end, ignoreId);
+    }
+
+    // 3. Add or move an appointment once its transaction commits
+    public void onSaved(Appointment appointment) {
+        Long doctorId = appointment.getDoctor().getId();
+        Interval interval = new Interval(appointment.getId(), appointment.getAppointmentTime(), appointment.getEndTime());
+        AfterCommit.run(() -> {
+            changes.bump(doctorId);
+            Schedule schedule = schedules.get(doctorId);
+            if (schedule != null) {
+                schedule.put(interval);
+            }
+        });
+    }
+
+    // 4. Remove a cancelled appointment once its transaction commits
+    public void onRemoved(Long doctorId, Long appointmentId) {
+        AfterCommit.run(() -> {
+            changes.bump(doctorId);
+            Schedule schedule = schedules.get(doctorId);
+            if (schedule != null) {
+                schedule.remove(appointmentId);
+            }
+        });
+    }
+
+    // 5. Forget a doctor's schedule after the doctor is deleted
+    public void onDoctorChanged(Long doctorId) {
+        AfterCommit.run(() -> {
+            changes.bump(doctorId);
+            schedules.remove(doctorId);
+        });
+    }
+
+    // 6. Forget every schedule, e.g. after a bulk import
+    public void clear() {
+        changes.bumpAll();
+        schedules.clear();
+    }
+
+    // Loaded once per doctor from the start of yesterday; earlier rows cannot reach into new bookings.
+    // The query runs outside the map's bin lock so a virtual thread blocking on JDBC does not pin its carrier.
+    private Schedule schedule(Long doctorId) {
+        Schedule cached = schedules.get(doctorId);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = changes.get(doctorId);
+        Schedule schedule = new Schedule();
+        LocalDateTime from = LocalDate.now().minusDays(1).atStartOfDay();
+        for (AppointmentInterval row : appointmentRepository
+                .findIntervalsByDoctorIdAndAppointmentTimeGreaterThanEqual(doctorId, from)) {
+            int minutes = row.getDurationMinutes() != null ? row.getDurationMinutes() : Appointment.DEFAULT_DURATION_MINUTES;
+            schedule.put(new Interval(row.getId(), row.getAppointmentTime(), row.getAppointmentTime().plusMinutes(minutes)));
+        }
+        Schedule existing = schedules.putIfAbsent(doctorId, schedule);
+        if (existing != null) {
+            return existing;
+        }
+        if (changes.get(doctorId) != seen) {
+            schedules.remove(doctorId, schedule);
+        }
+        return schedule;
+    }
+}
@@ -1,14 +1,22 @@
 package com.project.back_end.services;
 
 import com.project.back_end.models.Appointment;
+import com.project.back_end.models.AppointmentSlot;
+import com.project.back_end.models.ArchivedAppointment;
 import com.project.back_end.repo.*;
 import com.project.back_end.services.TokenService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service  // 1. Marking this class as a Spring service component
 public class AppointmentService {
@@ -17,30 +25,73 @@ public class AppointmentService {
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
     private final TokenService tokenService;
+    private final DoctorSlotIndex slotIndex;
+    private final AppointmentIntervalIndex intervalIndex;
+    private final AppointmentSlotRepository slotRepository;
+    private final ArchivedAppointmentRepository archiveRepository;
+    private final AppointmentArchiveService archiveService;
+
+    // Booking attempts turned away because the slot was taken, and ones that failed outright
+    private final LongAdder bookingConflicts = new LongAdder();
+    private final LongAdder bookingErrors = new LongAdder();
 
     // 2. Constructor Injection
     public AppointmentService(AppointmentRepository appointmentRepository,
                               PatientRepository patientRepository,
                               DoctorRepository doctorRepository,
-                              TokenService tokenService) {
+                              TokenService tokenService,
+                              DoctorSlotIndex slotIndex,
+                              AppointmentIntervalIndex intervalIndex,
+                              AppointmentSlotRepository slotRepository,
+                              ArchivedAppointmentRepository archiveRepository,
+                              AppointmentArchiveService archiveService) {
         this.appointmentRepository = appointmentRepository;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
         this.tokenService = tokenService;
+        this.slotIndex = slotIndex;
+        this.intervalIndex = intervalIndex;
+        this.slotRepository = slotRepository;
+        this.archiveRepository = archiveRepository;
+        this.archiveService = archiveService;
     }
 
-    // 4. Book Appointment
+    // 4. Book Appointment (-1 overlaps an existing appointment, 0 error, 1 booked)
+    // The in-memory overlap check is only a fast path; the unique (doctor_id, slot_start)
+    // key on appointment_slot is what decides a race between concurrent bookings.
     @Transactional
     public int bookAppointment(Appointment appointment) {
         try {
+            if (intervalIndex.hasOverlap(appointment.getDoctor().getId(),
+                    appointment.getAppointmentTime(), appointment.getEndTime(), null)) {
+                bookingConflicts.increment();
+                return -1;
+            }
             appointmentRepository.save(appointment);
+            if (!claimSlots(appointment)) {
+                bookingConflicts.increment();
+                return -1;
+            }
+            slotIndex.onBooked(appointment);
+            intervalIndex.onSaved(appointment);
             return 1;
         } catch (Exception e) {
             // log error if needed
+            bookingErrors.increment();
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return 0;
         }
     }
 
+    // 4a. Booking outcome counters
+    public long getBookingConflictCount() {
+        return bookingConflicts.sum();
+    }
+
+    public long getBookingErrorCount() {
+        return bookingErrors.sum();
+    }
+
     // 5. Update Appointment
     @Transactional
     public String updateAppointment(Long appointmentId, Appointment updatedAppointment, Long patientId) {
@@ -55,22 +106,41 @@ public class AppointmentService {
             return "Unauthorized update attempt.";
         }
 
-        // Example validation: check if the time is already taken for the doctor
-        boolean conflict = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
-                updatedAppointment.getDoctor().getId(),
-                updatedAppointment.getAppointmentTime().minusMinutes(59),
-                updatedAppointment.getAppointmentTime().plusMinutes(59)
-        ).stream().anyMatch(a -> !a.getId().equals(appointmentId));
+        // Check the new time range against the doctor's interval index; a request without a duration keeps the current one
+        int duration = updatedAppointment.getRequestedDurationMinutes() != null
+                ? updatedAppointment.getRequestedDurationMinutes()
+                : existing.getDurationMinutes();
+        if (!Appointment.onSlotBoundaries(updatedAppointment.getAppointmentTime(), duration)) {
+            return "Appointment must start and end on a slot boundary.";
+        }
+        boolean conflict = intervalIndex.hasOverlap(
+                existing.getDoctor().getId(),
+                updatedAppointment.getAppointmentTime(),
+                updatedAppointment.getAppointmentTime().plusMinutes(duration),
+                appointmentId
+        );
 
         if (conflict) {
             return "Doctor already has an appointment at that time.";
         }
 
+        LocalDate previousDate = existing.getAppointmentDate();
+
         // Update fields
         existing.setAppointmentTime(updatedAppointment.getAppointmentTime());
         existing.setStatus(updatedAppointment.getStatus());
+        existing.setDurationMinutes(duration);
         appointmentRepository.save(existing);
 
+        slotRepository.releaseByAppointmentId(appointmentId);
+        if (!claimSlots(existing)) {
+            return "Doctor already has an appointment at that time.";
+        }
+
+        slotIndex.onReleased(existing.getDoctor().getId(), previousDate);
+        slotIndex.onBooked(existing);
+        intervalIndex.onSaved(existing);
+
         return "Appointment updated successfully.";
     }
 
@@ -88,22 +158,39 @@ public class AppointmentService {
             return "Unauthorized cancellation attempt.";
         }
 
+        slotRepository.releaseByAppointmentId(appointmentId);
         appointmentRepository.deleteById(appointmentId);
+        slotIndex.onReleased(appointment.getDoctor().getId(), appointment.getAppointmentDate());
+        intervalIndex.onRemoved(appointment.getDoctor().getId(), appointmentId);
         return "Appointment canceled.";
     }
 
-    // 7. Get Appointments by doctor and optional patient name
+    // 7. Get Appointments by doctor and optional patient name; days before the archive horizon also read the archive
     @Transactional(readOnly = true)
     public List<Appointment> getAppointments(Long doctorId, LocalDate date, String patientName) {
         var start = date.atStartOfDay();
         var end = date.atTime(23, 59, 59);
-
-        if (patientName != null && !patientName.isBlank()) {
-            return appointmentRepository.findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
-                    doctorId, patientName, start, end);
+        boolean byName = patientName != null && !patientName.isBlank();
+
+        List<Appointment> hot = byName
+                ? appointmentRepository.findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+                        doctorId, patientName, start, end)
+                : appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
+        if (!archiveService.reachesArchive(start)) {
+            return hot;
         }
 
-        return appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
+        List<ArchivedAppointment> archived = byName
+                ? archiveRepository.findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+                        doctorId, patientName, start, end)
+                : archiveRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Appointment> all = new ArrayList<>(hot);
+        archived.forEach(a -> all.add(a.toAppointment()));
+        all.sort(Comparator.comparing(Appointment::getAppointmentTime).thenComparing(Appointment::getId));
+        return all;
     }
 
     // 8. Change appointment status
@@ -112,4 +199,34 @@ public class AppointmentService {
         appointmentRepository.updateStatus(status, appointmentId);
         return "Status updated.";
     }
+
+    // Insert one appointment_slot row per slot the appointment covers. A duplicate key means
+    // another booking won the race: the transaction is marked rollback-only and false returned.
+    private boolean claimSlots(Appointment appointment) {
+        List<AppointmentSlot> claims = new ArrayList<>();
+        Long doctorId = appointment.getDoctor().getId();
+        for (LocalDateTime slot : slotStarts(appointment.getAppointmentTime(), appointment.getEndTime())) {
+            claims.add(new AppointmentSlot(doctorId, slot, appointment.getId()));
+        }
+        try {
+            slotRepository.saveAllAndFlush(claims);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return false;
+        }
+    }
+
+    // Slot boundaries covering [start, end); appointments start and end on a boundary (Appointment.onSlotBoundaries),
+    // so no two claims of non-overlapping visits can share a slot
+    static List<LocalDateTime> slotStarts(LocalDateTime start, LocalDateTime end) {
+        int minute = start.getMinute() - start.getMinute() % DoctorSlotIndex.SLOT_MINUTES;
+        LocalDateTime slot = start.withMinute(minute).withSecond(0).withNano(0);
+        List<LocalDateTime> slots = new ArrayList<>();
+        while (slot.isBefore(end)) {
+            slots.add(slot);
+            slot = slot.plusMinutes(DoctorSlotIndex.SLOT_MINUTES);
+        }
+        return slots;
+    }
 }
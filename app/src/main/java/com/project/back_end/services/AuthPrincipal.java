@@ -0,0 +1,42 @@
+package com.project.back_end.services;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// The caller behind the current request, resolved from its token once and kept as a request attribute.
+// userId is null for tokens issued without the uid claim.
+public record AuthPrincipal(String token, String subject, Long userId, String role) {
+
+    // Request attribute holding the resolved principal
+    public static final String ATTRIBUTE = AuthPrincipal.class.getName();
+    // Request attribute holding the raw Authorization bearer token when no principal could be resolved up front
+    public static final String BEARER_ATTRIBUTE = AuthPrincipal.class.getName() + ".bearer";
+
+    // 1. Principal resolved for the current request, or null outside a request or before authorization
+    public static AuthPrincipal current() {
+        Object principal = attribute(ATTRIBUTE);
+        return principal instanceof AuthPrincipal p ? p : null;
+    }
+
+    // 2. Bearer token from the Authorization header, or null when the request carried none
+    public static String bearerToken() {
+        AuthPrincipal principal = current();
+        if (principal != null) {
+            return principal.token();
+        }
+        Object token = attribute(BEARER_ATTRIBUTE);
+        return token instanceof String s ? s : null;
+    }
+
+    static void remember(AuthPrincipal principal) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static Object attribute(String name) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null ? attributes.getAttribute(name, RequestAttributes.SCOPE_REQUEST) : null;
+    }
+}
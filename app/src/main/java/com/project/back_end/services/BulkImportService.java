@@ -0,0 +1,541 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.SlotSchedule;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Streams CSV or NDJSON rows in fixed-size chunks and writes each chunk with JDBC batch inserts
+@Service
+public class BulkImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final Set<String> ENTITIES = Set.of("doctors", "patients", "appointments");
+    private static final int MAX_ERRORS_PER_CHUNK = 100;
+    // Existing slot claims are looked up this many (doctor_id, slot_start) pairs at a time
+    private static final int CLAIM_LOOKUP_SIZE = 500;
+
+    record Row(long line, Map<String, Object> fields) {}
+
+    // A parsed appointment row and the slots it will claim
+    record ImportedAppointment(long line, long doctorId, long patientId, LocalDateTime time, int status,
+                               int duration, List<LocalDateTime> slots) {}
+
+    record SlotKey(long doctorId, LocalDateTime start) {}
+
+    public record RowError(long line, String message) {}
+
+    public record ChunkReport(int chunk, long firstLine, int rows, int inserted, List<RowError> errors) {}
+
+    public record Summary(boolean done, int chunks, long rows, long inserted, long failed) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final DoctorSlotIndex slotIndex;
+    private final AppointmentIntervalIndex intervalIndex;
+    private final DoctorDirectoryIndex directoryIndex;
+    private final DoctorCache doctorCache;
+
+    // Rows validated and written per transaction
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    // 1. Constructor injection
+    public BulkImportService(JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             DoctorSlotIndex slotIndex,
+                             AppointmentIntervalIndex intervalIndex,
+                             DoctorDirectoryIndex directoryIndex,
+                             DoctorCache doctorCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.slotIndex = slotIndex;
+        this.intervalIndex = intervalIndex;
+        this.directoryIndex = directoryIndex;
+        this.doctorCache = doctorCache;
+    }
+
+    // 2. Check the entity and format before the response starts streaming
+    public boolean supports(String entity, String format) {
+        return ENTITIES.contains(entity) && (FORMAT_CSV.equals(format) || FORMAT_NDJSON.equals(format));
+    }
+
+    // 3. Import a stream, writing one NDJSON progress line per committed chunk and a final summary
+    public void importStream(String entity, String format, InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = FORMAT_CSV.equals(format) ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+
+        int chunkNo = 0;
+        long total = 0;
+        long inserted = 0;
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        List<RowError> parseErrors = new ArrayList<>();
+        boolean more = true;
+        while (more) {
+            try {
+                Row row = rows.next();
+                if (row == null) {
+                    more = false;
+                } else {
+                    chunk.add(row);
+                }
+            } catch (IllegalArgumentException e) {
+                parseErrors.add(new RowError(rows.line(), e.getMessage()));
+            }
+
+            int pending = chunk.size() + parseErrors.size();
+            if (pending >= chunkSize || (!more && pending > 0)) {
+                ChunkReport report = writeChunk(entity, ++chunkNo, chunk, parseErrors);
+                total += report.rows();
+                inserted += report.inserted();
+                writeLine(out, report);
+                chunk = new ArrayList<>(chunkSize);
+                parseErrors = new ArrayList<>();
+            }
+        }
+
+        if (inserted > 0 && "appointments".equals(entity)) {
+            slotIndex.clear();
+            intervalIndex.clear();
+        }
+        if (inserted > 0 && "doctors".equals(entity)) {
+            directoryIndex.clear();
+            doctorCache.evictAll();
+        }
+        writeLine(out, new Summary(true, chunkNo, total, inserted, total - inserted));
+    }
+
+    private ChunkReport writeChunk(String entity, int chunkNo, List<Row> chunk, List<RowError> parseErrors) {
+        long firstLine = chunk.isEmpty() ? (parseErrors.isEmpty() ? 0 : parseErrors.get(0).line()) : chunk.get(0).line();
+        List<RowError> errors;
+        int inserted;
+        int attempt = 0;
+        while (true) {
+            List<RowError> attemptErrors = new ArrayList<>(parseErrors);
+            errors = attemptErrors;
+            try {
+                Integer count = transactionTemplate.execute(status -> switch (entity) {
+                    case "doctors" -> insertDoctors(chunk, attemptErrors);
+                    case "patients" -> insertPatients(chunk, attemptErrors);
+                    default -> insertAppointments(chunk, attemptErrors);
+                });
+                inserted = count != null ? count : 0;
+                break;
+            } catch (Exception e) {
+                // A key claimed concurrently after the chunk was screened; a second pass reports it as a row error
+                if (e instanceof DuplicateKeyException && ++attempt < 2) {
+                    continue;
+                }
+                // The whole chunk rolled back; report it once rather than per row
+                attemptErrors.add(new RowError(firstLine, "Chunk failed: " + e.getMessage()));
+                inserted = 0;
+                break;
+            }
+        }
+        List<RowError> reported = errors.size() > MAX_ERRORS_PER_CHUNK ? errors.subList(0, MAX_ERRORS_PER_CHUNK) : errors;
+        return new ChunkReport(chunkNo, firstLine, chunk.size() + parseErrors.size(), inserted, reported);
+    }
+
+    // Doctors: bean validation, duplicate email check against the chunk and the table, then batched inserts
+    private int insertDoctors(List<Row> chunk, List<RowError> errors) {
+        Map<String, Doctor> byEmail = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            Doctor doctor;
+            try {
+                doctor = new Doctor(str(row, "name"), str(row, "specialty"), str(row, "email"),
+                        str(row, "password"), str(row, "phone"), times(row));
+            } catch (RuntimeException e) {
+                errors.add(new RowError(row.line(), "Invalid availableTimes: " + e.getMessage()));
+                continue;
+            }
+            if (isValid(row, doctor, errors) && isNewKey(row, doctor.getEmail(), byEmail.keySet(), errors)) {
+                byEmail.put(doctor.getEmail(), doctor);
+            }
+        }
+        dropExisting("SELECT email FROM doctor WHERE email IN (:keys)", byEmail, errors, chunk);
+        if (byEmail.isEmpty()) {
+            return 0;
+        }
+
+        List<Doctor> doctors = new ArrayList<>(byEmail.values());
+        jdbcTemplate.batchUpdate("INSERT INTO doctor (name, specialty, email, password, phone, slot_schedule) VALUES (?, ?, ?, ?, ?, ?)",
+                doctors, chunkSize, (ps, d) -> {
+                    ps.setString(1, d.getName());
+                    ps.setString(2, d.getSpecialty());
+                    ps.setString(3, d.getEmail());
+                    ps.setString(4, d.getPassword());
+                    ps.setString(5, d.getPhone());
+                    ps.setBytes(6, d.getSchedule().encode());
+                });
+        return doctors.size();
+    }
+
+    // Patients: same shape as doctors, keyed on email like PatientRepository.findByEmail
+    private int insertPatients(List<Row> chunk, List<RowError> errors) {
+        Map<String, Patient> byEmail = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            Patient patient = new Patient(str(row, "name"), str(row, "email"), str(row, "password"),
+                    str(row, "phone"), str(row, "address"));
+            if (isValid(row, patient, errors) && isNewKey(row, patient.getEmail(), byEmail.keySet(), errors)) {
+                byEmail.put(patient.getEmail(), patient);
+            }
+        }
+        dropExisting("SELECT email FROM patient WHERE email IN (:keys)", byEmail, errors, chunk);
+        if (byEmail.isEmpty()) {
+            return 0;
+        }
+
+        List<Patient> patients = new ArrayList<>(byEmail.values());
+        jdbcTemplate.batchUpdate("INSERT INTO patient (name, email, password, phone, address) VALUES (?, ?, ?, ?, ?)",
+                patients, chunkSize, (ps, p) -> {
+                    ps.setString(1, p.getName());
+                    ps.setString(2, p.getEmail());
+                    ps.setString(3, p.getPassword());
+                    ps.setString(4, p.getPhone());
+                    ps.setString(5, p.getAddress());
+                });
+        return patients.size();
+    }
+
+    // Appointments reference doctors and patients by email; both are resolved with one IN query per chunk.
+    // Every appointment claims its appointment_slot rows like a booking does, so overlaps within the file
+    // or with existing claims are row errors and uk_doctor_slot still guards whatever gets written.
+    private int insertAppointments(List<Row> chunk, List<RowError> errors) {
+        Set<String> doctorEmails = new HashSet<>();
+        Set<String> patientEmails = new HashSet<>();
+        for (Row row : chunk) {
+            doctorEmails.add(str(row, "doctorEmail"));
+            patientEmails.add(str(row, "patientEmail"));
+        }
+        Map<String, Long> doctorIds = idsByKey("SELECT id, email FROM doctor WHERE email IN (:keys)", doctorEmails);
+        Map<String, Long> patientIds = idsByKey("SELECT id, email FROM patient WHERE email IN (:keys)", patientEmails);
+
+        List<ImportedAppointment> parsed = new ArrayList<>();
+        Map<SlotKey, Long> claimedBy = new HashMap<>();
+        for (Row row : chunk) {
+            Long doctorId = doctorIds.get(str(row, "doctorEmail"));
+            Long patientId = patientIds.get(str(row, "patientEmail"));
+            if (doctorId == null || patientId == null) {
+                errors.add(new RowError(row.line(), doctorId == null ? "Unknown doctorEmail" : "Unknown patientEmail"));
+                continue;
+            }
+            ImportedAppointment appointment;
+            try {
+                LocalDateTime time = LocalDateTime.parse(str(row, "appointmentTime"));
+                int status = Integer.parseInt(Objects.requireNonNullElse(str(row, "status"), "0"));
+                int duration = Integer.parseInt(Objects.requireNonNullElse(str(row, "durationMinutes"), "60"));
+                if (status < 0 || status > 2 || duration < SlotSchedule.SLOT_MINUTES || duration > 720) {
+                    throw new IllegalArgumentException("status must be 0-2 and durationMinutes " + SlotSchedule.SLOT_MINUTES + "-720");
+                }
+                if (!Appointment.onSlotBoundaries(time, duration)) {
+                    throw new IllegalArgumentException("appointmentTime and durationMinutes must fall on "
+                            + SlotSchedule.SLOT_MINUTES + "-minute slot boundaries");
+                }
+                appointment = new ImportedAppointment(row.line(), doctorId, patientId, time, status, duration,
+                        AppointmentService.slotStarts(time, time.plusMinutes(duration)));
+            } catch (RuntimeException e) {
+                errors.add(new RowError(row.line(), "Invalid appointment: " + e.getMessage()));
+                continue;
+            }
+            Long clash = null;
+            for (LocalDateTime slot : appointment.slots()) {
+                clash = claimedBy.get(new SlotKey(doctorId, slot));
+                if (clash != null) {
+                    break;
+                }
+            }
+            if (clash != null) {
+                errors.add(new RowError(row.line(), "Overlaps the appointment on line " + clash));
+                continue;
+            }
+            appointment.slots().forEach(slot -> claimedBy.put(new SlotKey(doctorId, slot), row.line()));
+            parsed.add(appointment);
+        }
+
+        List<ImportedAppointment> accepted = dropBooked(parsed, errors);
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement("INSERT INTO appointment "
+                        + "(doctor_id, patient_id, appointment_time, status, duration_minutes) VALUES (?, ?, ?, ?, ?)",
+                new String[]{"id"}), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ImportedAppointment a = accepted.get(i);
+                ps.setLong(1, a.doctorId());
+                ps.setLong(2, a.patientId());
+                ps.setTimestamp(3, Timestamp.valueOf(a.time()));
+                ps.setInt(4, a.status());
+                ps.setInt(5, a.duration());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return accepted.size();
+            }
+        }, keys);
+
+        // One generated key per row, in batch order; the column label differs between drivers
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<Object[]> claims = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            ImportedAppointment a = accepted.get(i);
+            long id = ((Number) generated.get(i).values().iterator().next()).longValue();
+            for (LocalDateTime slot : a.slots()) {
+                claims.add(new Object[]{a.doctorId(), Timestamp.valueOf(slot), id});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO appointment_slot (doctor_id, slot_start, appointment_id) VALUES (?, ?, ?)", claims);
+        return accepted.size();
+    }
+
+    // Rows whose slots are already claimed in appointment_slot become row errors
+    private List<ImportedAppointment> dropBooked(List<ImportedAppointment> parsed, List<RowError> errors) {
+        List<Object[]> pairs = new ArrayList<>();
+        for (ImportedAppointment a : parsed) {
+            for (LocalDateTime slot : a.slots()) {
+                pairs.add(new Object[]{a.doctorId(), Timestamp.valueOf(slot)});
+            }
+        }
+        Set<SlotKey> booked = new HashSet<>();
+        for (int from = 0; from < pairs.size(); from += CLAIM_LOOKUP_SIZE) {
+            List<Object[]> part = pairs.subList(from, Math.min(from + CLAIM_LOOKUP_SIZE, pairs.size()));
+            namedJdbcTemplate.query("SELECT doctor_id, slot_start FROM appointment_slot WHERE (doctor_id, slot_start) IN (:pairs)",
+                    Map.of("pairs", part), rs -> {
+                        booked.add(new SlotKey(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()));
+                    });
+        }
+        if (booked.isEmpty()) {
+            return parsed;
+        }
+        List<ImportedAppointment> free = new ArrayList<>(parsed.size());
+        for (ImportedAppointment a : parsed) {
+            boolean taken = a.slots().stream().anyMatch(slot -> booked.contains(new SlotKey(a.doctorId(), slot)));
+            if (taken) {
+                errors.add(new RowError(a.line(), "Doctor already has an appointment at that time"));
+            } else {
+                free.add(a);
+            }
+        }
+        return free;
+    }
+
+    private boolean isValid(Row row, Object entity, List<RowError> errors) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        StringJoiner message = new StringJoiner(", ");
+        violations.forEach(v -> message.add(v.getPropertyPath() + " " + v.getMessage()));
+        errors.add(new RowError(row.line(), message.toString()));
+        return false;
+    }
+
+    private boolean isNewKey(Row row, String key, Set<String> seen, List<RowError> errors) {
+        if (seen.contains(key)) {
+            errors.add(new RowError(row.line(), "Duplicate email in file: " + key));
+            return false;
+        }
+        return true;
+    }
+
+    private <T> void dropExisting(String sql, Map<String, T> byKey, List<RowError> errors, List<Row> chunk) {
+        if (byKey.isEmpty()) {
+            return;
+        }
+        List<String> existing = namedJdbcTemplate.queryForList(sql, Map.of("keys", byKey.keySet()), String.class);
+        for (String key : existing) {
+            byKey.remove(key);
+            long line = chunk.stream().filter(r -> key.equals(str(r, "email"))).mapToLong(Row::line).findFirst().orElse(0);
+            errors.add(new RowError(line, "Already exists: " + key));
+        }
+    }
+
+    private Map<String, Long> idsByKey(String sql, Collection<String> keys) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> present = keys.stream().filter(Objects::nonNull).toList();
+        if (present.isEmpty()) {
+            return ids;
+        }
+        namedJdbcTemplate.query(sql, Map.of("keys", present), rs -> {
+            ids.put(rs.getString(2), rs.getLong(1));
+        });
+        return ids;
+    }
+
+    private static String str(Row row, String field) {
+        Object value = row.fields().get(field);
+        if (value == null) {
+            return null;
+        }
+        String s = value.toString().trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    // availableTimes is a JSON array in NDJSON and a ';'-separated list in CSV
+    private static List<String> times(Row row) {
+        Object value = row.fields().get("availableTimes");
+        List<String> times = new ArrayList<>();
+        if (value instanceof Collection<?> list) {
+            list.forEach(t -> times.add(t.toString().trim()));
+        } else if (value != null) {
+            for (String t : value.toString().split(";")) {
+                if (!t.isBlank()) {
+                    times.add(t.trim());
+                }
+            }
+        }
+        return times;
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+        out.flush();
+    }
+
+    interface RowReader {
+        Row next() throws IOException;
+
+        long line();
+    }
+
+    final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row(line, objectMapper.readValue(text, Map.class));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Malformed JSON");
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+
+    // Header row first; fields may be double-quoted with "" as an escaped quote
+    static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private List<String> header;
+        private long line;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                List<String> values = split(text);
+                if (header == null) {
+                    header = values;
+                    continue;
+                }
+                if (values.size() != header.size()) {
+                    throw new IllegalArgumentException("Expected " + header.size() + " columns, found " + values.size());
+                }
+                Map<String, Object> fields = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    fields.put(header.get(i), values.get(i));
+                }
+                return new Row(line, fields);
+            }
+            return null;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        static List<String> split(String text) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(current.toString().trim());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            values.add(current.toString().trim());
+            return values;
+        }
+    }
+}
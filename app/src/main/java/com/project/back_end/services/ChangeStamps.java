@@ -0,0 +1,32 @@
+package com.project.back_end.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Striped per-doctor change counters for the in-memory indexes. A load remembers its doctor's stamp
+// and is discarded only if a write for a doctor in the same stripe committed meanwhile, so a booking
+// for one doctor no longer throws away concurrent loads for every other doctor.
+final class ChangeStamps {
+
+    private static final int STRIPES = 1024;
+
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    long get(Long doctorId) {
+        return stamps.get(stripe(doctorId));
+    }
+
+    void bump(Long doctorId) {
+        stamps.incrementAndGet(stripe(doctorId));
+    }
+
+    void bumpAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(Long doctorId) {
+        long h = doctorId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 54);
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.stereotype.Component;
+
+// Hibernate second-level cache for doctors: the "doctor" entity region and the "doctor-queries"
+// finder region. Hibernate keeps both current for its own writes; evictions here cover admin edits
+// explicitly and the plain-JDBC writers (bulk import, schedule migration) it cannot see.
+@Component
+public class DoctorCache {
+
+    public static final String REGION = "doctor";
+    public static final String QUERY_REGION = "doctor-queries";
+
+    private final SessionFactory sessionFactory;
+
+    // 1. Constructor injection
+    public DoctorCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    // 2. Drop one doctor and every cached finder result once the transaction commits
+    public void evict(Long doctorId) {
+        AfterCommit.run(() -> {
+            Cache cache = sessionFactory.getCache();
+            cache.evictEntityData(Doctor.class, doctorId);
+            cache.evictQueryRegion(QUERY_REGION);
+        });
+    }
+
+    // 3. Drop every cached doctor, after rows were written behind Hibernate's back
+    public void evictAll() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Doctor.class);
+        cache.evictQueryRegion(QUERY_REGION);
+    }
+
+    // 4. Hit ratios from Hibernate statistics; NaN before the first lookup or with statistics off
+    public double getEntityHitRatio() {
+        try {
+            return ratio(sessionFactory.getStatistics().getDomainDataRegionStatistics(REGION));
+        } catch (IllegalArgumentException e) {
+            // Region not built: second-level caching is switched off
+            return Double.NaN;
+        }
+    }
+
+    public double getQueryHitRatio() {
+        return ratio(sessionFactory.getStatistics().getQueryRegionStatistics(QUERY_REGION));
+    }
+
+    private static double ratio(CacheRegionStatistics stats) {
+        if (stats == null) {
+            return Double.NaN;
+        }
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) stats.getHitCount() / lookups;
+    }
+}
@@ -0,0 +1,243 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.SlotSchedule;
+import com.project.back_end.repo.DoctorRepository;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory doctor directory: name trigrams, a specialty inverted index and AM/PM bitsets,
+// all keyed by a dense ordinal so any filter combination is a BitSet intersection
+@Component
+public class DoctorDirectoryIndex {
+
+    private static final int GRAM = 3;
+
+    private final DoctorRepository doctorRepository;
+    private final PrimaryReads primaryReads;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; changes counts writes so a load racing with them can be retried
+    private boolean loaded;
+    private long changes;
+    private final List<Doctor> doctors = new ArrayList<>();
+    private final List<String> lowerNames = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet am = new BitSet();
+    private final BitSet pm = new BitSet();
+    private final Map<String, BitSet> grams = new HashMap<>();
+    private final Map<String, BitSet> specialties = new HashMap<>();
+
+    // 1. Constructor injection
+    public DoctorDirectoryIndex(DoctorRepository doctorRepository, PrimaryReads primaryReads) {
+        this.doctorRepository = doctorRepository;
+        this.primaryReads = primaryReads;
+    }
+
+    // 2. Doctors matching every non-empty filter: name substring, specialty, and AM/PM availability
+    public List<Doctor> search(String name, String specialty, String timePeriod) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) live.clone();
+            if (!isBlank(specialty)) {
+                result.and(specialties.getOrDefault(specialty.trim().toLowerCase(Locale.ROOT), new BitSet()));
+            }
+            if (!isBlank(timePeriod)) {
+                result.and(periodBits(timePeriod));
+            }
+            if (!isBlank(name)) {
+                matchName(name.trim().toLowerCase(Locale.ROOT), result);
+            }
+
+            List<Doctor> matches = new ArrayList<>(result.cardinality());
+            for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+                matches.add(doctors.get(i));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 3. Index a saved or updated doctor once its transaction commits
+    public void onSaved(Doctor doctor) {
+        Doctor snapshot = snapshot(doctor);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                changes++;
+                if (loaded) {
+                    remove(snapshot.getId());
+                    add(snapshot);
+                    compactIfSparse();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // 4. Drop a deleted doctor once its transaction commits
+    public void onDeleted(Long doctorId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                changes++;
+                remove(doctorId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // 4a. Change counter: moves on every committed doctor write, delete or reset
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return changes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 5. Forget everything; the next search reloads from the database
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            changes++;
+            loaded = false;
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        while (true) {
+            long seen;
+            lock.readLock().lock();
+            try {
+                if (loaded) {
+                    return;
+                }
+                seen = changes;
+            } finally {
+                lock.readLock().unlock();
+            }
+            List<Doctor> all = primaryReads.execute(() ->
+                    doctorRepository.findAll().stream().map(DoctorDirectoryIndex::snapshot).toList());
+            lock.writeLock().lock();
+            try {
+                // A write that committed during the load may be missing from it; load again
+                if (!loaded && changes == seen) {
+                    reset();
+                    all.forEach(this::add);
+                    loaded = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Trigram candidates, then a real substring check to drop false positives
+    private void matchName(String query, BitSet result) {
+        if (query.length() >= GRAM) {
+            for (int i = 0; i + GRAM <= query.length() && !result.isEmpty(); i++) {
+                result.and(grams.getOrDefault(query.substring(i, i + GRAM), new BitSet()));
+            }
+        }
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            if (!lowerNames.get(i).contains(query)) {
+                result.clear(i);
+            }
+        }
+    }
+
+    private BitSet periodBits(String timePeriod) {
+        if ("AM".equalsIgnoreCase(timePeriod.trim())) {
+            return am;
+        }
+        if ("PM".equalsIgnoreCase(timePeriod.trim())) {
+            return pm;
+        }
+        return new BitSet();
+    }
+
+    private void add(Doctor doctor) {
+        int ordinal = doctors.size();
+        String lower = doctor.getName() != null ? doctor.getName().toLowerCase(Locale.ROOT) : "";
+        doctors.add(doctor);
+        lowerNames.add(lower);
+        ordinals.put(doctor.getId(), ordinal);
+        live.set(ordinal);
+
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            grams.computeIfAbsent(lower.substring(i, i + GRAM), k -> new BitSet()).set(ordinal);
+        }
+        if (doctor.getSpecialty() != null) {
+            specialties.computeIfAbsent(doctor.getSpecialty().trim().toLowerCase(Locale.ROOT), k -> new BitSet()).set(ordinal);
+        }
+        if (doctor.getSchedule().offersAny(SlotSchedule.AM_MASK)) {
+            am.set(ordinal);
+        }
+        if (doctor.getSchedule().offersAny(SlotSchedule.PM_MASK)) {
+            pm.set(ordinal);
+        }
+    }
+
+    // Ordinals are never reused; the old one just leaves the live set
+    private void remove(Long doctorId) {
+        Integer ordinal = ordinals.remove(doctorId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+        }
+    }
+
+    // Rebuild once retired ordinals outnumber live ones
+    private void compactIfSparse() {
+        if (doctors.size() <= 2 * ordinals.size() + 64) {
+            return;
+        }
+        List<Doctor> current = new ArrayList<>(ordinals.size());
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            current.add(doctors.get(i));
+        }
+        reset();
+        current.forEach(this::add);
+    }
+
+    private void reset() {
+        doctors.clear();
+        lowerNames.clear();
+        ordinals.clear();
+        live.clear();
+        am.clear();
+        pm.clear();
+        grams.clear();
+        specialties.clear();
+    }
+
+    // Detached copy without the password; the schedule is immutable and shared
+    private static Doctor snapshot(Doctor doctor) {
+        Doctor copy = new Doctor(doctor.getName(), doctor.getSpecialty(), doctor.getEmail(), null, doctor.getPhone(), null);
+        copy.setId(doctor.getId());
+        copy.setSchedule(doctor.getSchedule());
+        return copy;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.models.Doctor;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+// The full GET /doctor body, serialized and gzipped once per directory version and reused until
+// the next doctor write. The ETag is that version, so a matching If-None-Match is a 304 with no query.
+@Component
+public class DoctorDirectoryResponse {
+
+    record Encoded(long version, String etag, byte[] json, byte[] gzip) {}
+
+    private final DoctorService doctorService;
+    private final DoctorDirectoryIndex directoryIndex;
+    private final ObjectMapper objectMapper;
+    private final PrimaryReads primaryReads;
+
+    // Counters restart with the process; the instance id keeps one node's version from matching another's
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private volatile Encoded current;
+    // A lock rather than synchronized: the rebuild queries the database and must not pin a virtual thread
+    private final ReentrantLock rebuild = new ReentrantLock();
+
+    // 1. Constructor injection
+    public DoctorDirectoryResponse(DoctorService doctorService, DoctorDirectoryIndex directoryIndex, ObjectMapper objectMapper,
+                                   PrimaryReads primaryReads) {
+        this.doctorService = doctorService;
+        this.directoryIndex = directoryIndex;
+        this.objectMapper = objectMapper;
+        this.primaryReads = primaryReads;
+    }
+
+    // 2. 304 when the client's ETag is current, otherwise the cached body (gzipped when accepted)
+    public ResponseEntity<byte[]> respond(String ifNoneMatch, String acceptEncoding) {
+        String etag = etag(directoryIndex.version());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+
+        Encoded encoded = encoded();
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(encoded.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return response.body(encoded.json());
+    }
+
+    // 3. Current encoding, rebuilt once per version; the version is read before loading so a write
+    // that lands mid-build bumps it and the next request rebuilds
+    Encoded encoded() {
+        long version = directoryIndex.version();
+        Encoded cached = current;
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        rebuild.lock();
+        try {
+            cached = current;
+            if (cached != null && cached.version() == version) {
+                return cached;
+            }
+            // On the primary: this body is reused until the next write, so it must already include the last one
+            List<Doctor> doctors = primaryReads.execute(doctorService::getDoctors);
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(Map.of("doctors", doctors));
+                Encoded built = new Encoded(version, etag(version), json, gzip(json));
+                current = built;
+                return built;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } finally {
+            rebuild.unlock();
+        }
+    }
+
+    private String etag(long version) {
+        return "W/\"d-" + instance + "-" + version + "\"";
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,17 +1,19 @@
 package com.project.back_end.services;
 
 import com.project.back_end.models.Doctor;
-import com.project.back_end.models.Appointment;
-import com.project.back_end.models.AvailableTime;
+import com.project.back_end.models.SlotSchedule;
 import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.AppointmentSlotRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.services.TokenService;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,35 +23,54 @@ public class DoctorService {
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final DoctorSlotIndex slotIndex;
+    private final AppointmentIntervalIndex intervalIndex;
+    private final AppointmentSlotRepository slotRepository;
+    private final DoctorDirectoryIndex directoryIndex;
+    private final DoctorCache doctorCache;
+    private final ArchivedAppointmentRepository archiveRepository;
 
     // 2. Constructor Injection
     public DoctorService(DoctorRepository doctorRepository,
                          AppointmentRepository appointmentRepository,
-                         TokenService tokenService) {
+                         TokenService tokenService,
+                         DoctorSlotIndex slotIndex,
+                         AppointmentIntervalIndex intervalIndex,
+                         AppointmentSlotRepository slotRepository,
+                         DoctorDirectoryIndex directoryIndex,
+                         DoctorCache doctorCache,
+                         ArchivedAppointmentRepository archiveRepository) {
         this.doctorRepository = doctorRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.slotIndex = slotIndex;
+        this.intervalIndex = intervalIndex;
+        this.slotRepository = slotRepository;
+        this.directoryIndex = directoryIndex;
+        this.doctorCache = doctorCache;
+        this.archiveRepository = archiveRepository;
     }
 
-    // 4. Get doctor's available time slots on a given date
-    @Transactional
-    public List<AvailableTime> getDoctorAvailability(Long doctorId, LocalDate date) {
-        Optional<Doctor> doctorOpt = doctorRepository.findById(doctorId);
-        if (doctorOpt.isEmpty()) return Collections.emptyList();
-
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
-                doctorId,
-                date.atStartOfDay(),
-                date.atTime(23, 59, 59)
-        );
-
-        Set<LocalTime> bookedTimes = appointments.stream()
-                .map(a -> a.getAppointmentTime().toLocalTime())
-                .collect(Collectors.toSet());
-
-        return doctorOpt.get().getAvailableTimes().stream()
-                .filter(at -> !bookedTimes.contains(at.getTime()))
-                .collect(Collectors.toList());
+    // 4. Get doctor's available time slots on a given date (answered from the slot bitmap index,
+    // which loads misses on the primary itself; a read-only transaction here would pin them to a replica)
+    public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
+        List<String> slots = slotIndex.availableSlots(doctorId, date);
+        return slots != null ? slots : Collections.emptyList();
+    }
+
+    // 4a. Availability with its ETag; deliberately not transactional so a cached answer never takes a connection
+    public DoctorSlotIndex.Availability getAvailability(Long doctorId, LocalDate date) {
+        return slotIndex.availability(doctorId, date);
+    }
+
+    // 4b. Check one slot: -1 doctor not found, 0 unavailable, 1 free
+    public int checkSlot(Long doctorId, LocalDate date, String slot) {
+        return slotIndex.checkSlot(doctorId, date, slot);
+    }
+
+    // 4c. Check every slot a visit from start to end covers: -1 doctor not found, 0 unavailable, 1 free
+    public int checkSlots(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return slotIndex.checkSlot(doctorId, start, end);
     }
 
     // 5. Save new doctor
@@ -60,20 +81,26 @@ public class DoctorService {
         }
         try {
             doctorRepository.save(doctor);
+            directoryIndex.onSaved(doctor);
             return 1;
         } catch (Exception e) {
             return 0;
         }
     }
 
-    // 6. Update existing doctor
+    // 6. Update existing doctor; schedule parts missing from the body keep their stored values
     @Transactional
     public int updateDoctor(Doctor doctor) {
-        if (!doctorRepository.existsById(doctor.getId())) {
+        Doctor stored = doctorRepository.findById(doctor.getId()).orElse(null);
+        if (stored == null) {
             return -1;
         }
         try {
+            doctor.setSchedule(doctor.mergeSchedule(stored.getSchedule()));
             doctorRepository.save(doctor);
+            slotIndex.onDoctorChanged(doctor.getId());
+            directoryIndex.onSaved(doctor);
+            doctorCache.evict(doctor.getId());
             return 1;
         } catch (Exception e) {
             return 0;
@@ -86,15 +113,38 @@ public class DoctorService {
         return doctorRepository.findAll();
     }
 
-    // 8. Delete doctor and associated appointments
+    // 7a. One keyset page of doctors in id order, with an opaque cursor for the next page
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDoctorPage(String cursor, Integer size) {
+        PageCursor after = PageCursor.decode(cursor, false);
+        int pageSize = PageCursor.clampSize(size);
+        List<Doctor> rows = doctorRepository.findByIdGreaterThanOrderByIdAsc(
+                after != null ? after.id() : 0L, Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Doctor> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("doctors", new ArrayList<>(page));
+        result.put("nextCursor", hasMore ? PageCursor.afterId(page.get(page.size() - 1).getId()).encode() : null);
+        return result;
+    }
+
+    // 8. Delete doctor and associated appointments, archived ones included
     @Transactional
     public int deleteDoctor(Long doctorId) {
         if (!doctorRepository.existsById(doctorId)) {
             return -1;
         }
         try {
+            slotRepository.releaseByDoctorId(doctorId);
             appointmentRepository.deleteAllByDoctorId(doctorId);
+            archiveRepository.deleteAllByDoctorId(doctorId);
             doctorRepository.deleteById(doctorId);
+            slotIndex.onDoctorChanged(doctorId);
+            intervalIndex.onDoctorChanged(doctorId);
+            directoryIndex.onDeleted(doctorId);
+            doctorCache.evict(doctorId);
             return 1;
         } catch (Exception e) {
             return 0;
@@ -107,7 +157,7 @@ public class DoctorService {
         if (doctor == null || !doctor.getPassword().equals(password)) {
             return "Invalid credentials";
         }
-        return tokenService.generateToken(doctor.getId(), "doctor");
+        return tokenService.generateToken(doctor.getEmail(), doctor.getId(), "doctor");
     }
 
     // 10. Find doctor by name
@@ -116,61 +166,21 @@ public class DoctorService {
         return doctorRepository.findByNameLike("%" + name + "%");
     }
 
-    // 11. Filter doctors by name, specialty, and time
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorsByNameSpecilityandTime(String name, String specialty, String timePeriod) {
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-        return filterDoctorByTime(doctors, timePeriod);
-    }
-
-    // 12. Filter doctors by available time (AM/PM)
+    // 11. Filter doctors by available time (AM/PM); name and specialty filters go through DoctorDirectoryIndex
     public List<Doctor> filterDoctorByTime(List<Doctor> doctors, String timePeriod) {
+        long period = periodMask(timePeriod);
         return doctors.stream()
-                .filter(doc -> doc.getAvailableTimes().stream()
-                        .anyMatch(t -> isTimeInPeriod(t.getTime(), timePeriod)))
+                .filter(doc -> doc.getSchedule().offersAny(period))
                 .collect(Collectors.toList());
     }
 
-    // 13. Filter doctors by name and time
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorByNameAndTime(String name, String timePeriod) {
-        List<Doctor> doctors = doctorRepository.findByNameLike("%" + name + "%");
-        return filterDoctorByTime(doctors, timePeriod);
-    }
-
-    // 14. Filter by name and specialty
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorByNameAndSpecility(String name, String specialty) {
-        return doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-    }
-
-    // 15. Filter by specialty and time
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorByTimeAndSpecility(String specialty, String timePeriod) {
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specialty);
-        return filterDoctorByTime(doctors, timePeriod);
-    }
-
-    // 16. Filter by specialty only
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorBySpecility(String specialty) {
-        return doctorRepository.findBySpecialtyIgnoreCase(specialty);
-    }
-
-    // 17. Filter all doctors by time
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorsByTime(String timePeriod) {
-        List<Doctor> allDoctors = doctorRepository.findAll();
-        return filterDoctorByTime(allDoctors, timePeriod);
-    }
-
-    // Helper: Check if time is in AM or PM
-    private boolean isTimeInPeriod(LocalTime time, String period) {
+    // Helper: slot mask for the AM or PM half of the day, empty for anything else
+    static long periodMask(String period) {
         if ("AM".equalsIgnoreCase(period)) {
-            return time.isBefore(LocalTime.NOON);
+            return SlotSchedule.AM_MASK;
         } else if ("PM".equalsIgnoreCase(period)) {
-            return !time.isBefore(LocalTime.NOON);
+            return SlotSchedule.PM_MASK;
         }
-        return false;
+        return 0L;
     }
 }
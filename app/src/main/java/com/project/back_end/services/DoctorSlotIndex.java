@@ -0,0 +1,217 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.SlotSchedule;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory bitmap of booked slots per doctor per day, with the doctor's slot schedule cached alongside
+@Component
+public class DoctorSlotIndex {
+
+    // One bit per 30-minute slot, so a whole day fits in the low 48 bits of a long
+    static final int SLOT_MINUTES = SlotSchedule.SLOT_MINUTES;
+
+    record DayKey(Long doctorId, LocalDate date) {}
+
+    // Free slots for one doctor-day and a tag that changes whenever they could have changed
+    public record Availability(String etag, List<String> free) {}
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    // Loads run on the primary so an invalidated entry is never refilled from a lagging replica
+    private final PrimaryReads primaryReads;
+
+    // Upper bound on cached doctor-days before old days are dropped
+    @Value("${slots.index.max-days:50000}")
+    private int maxDays;
+
+    private final Map<Long, SlotSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<DayKey, Long> booked = new ConcurrentHashMap<>();
+    // Bumped for a doctor on every committed change so a load racing with one is not kept
+    private final ChangeStamps changes = new ChangeStamps();
+
+    // 1. Constructor injection
+    public DoctorSlotIndex(DoctorRepository doctorRepository, AppointmentRepository appointmentRepository, PrimaryReads primaryReads) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.primaryReads = primaryReads;
+    }
+
+    // 2. Free slot labels for a doctor on a date, or null when the doctor does not exist
+    public List<String> availableSlots(Long doctorId, LocalDate date) {
+        Availability availability = availability(doctorId, date);
+        return availability != null ? availability.free() : null;
+    }
+
+    // 2a. Free slots plus a content-derived tag (offered, unit starts, booked bits); null when the doctor does not exist.
+    // Served from memory once the doctor and day are cached, so a revalidation costs no query.
+    public Availability availability(Long doctorId, LocalDate date) {
+        SlotSchedule schedule = schedule(doctorId);
+        if (schedule == null) {
+            return null;
+        }
+        SlotSchedule.Day day = schedule.dayFor(date);
+        long[] units = day.units();
+        long taken = units.length == 0 ? 0L : bookedBits(doctorId, date) & day.offered();
+        List<String> free = new ArrayList<>(units.length);
+        for (long unit : units) {
+            if ((unit & taken) == 0) {
+                free.add(SlotSchedule.label(unit));
+            }
+        }
+        String etag = "W/\"a-" + Long.toHexString(day.offered()) + "-" + Long.toHexString(day.starts())
+                + "-" + Long.toHexString(taken) + "\"";
+        return new Availability(etag, free);
+    }
+
+    // 3. Slot check: -1 doctor not found, 0 some covered slot not offered or taken, 1 every covered slot free
+    public int checkSlot(Long doctorId, LocalDate date, String slotLabel) {
+        long wanted;
+        try {
+            wanted = SlotSchedule.parseLabel(slotLabel);
+        } catch (RuntimeException e) {
+            return schedule(doctorId) == null ? -1 : 0;
+        }
+        return check(doctorId, date, wanted);
+    }
+
+    // 3a. Same for the slots an appointment covers from start to end; a visit running past midnight is refused
+    public int checkSlot(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start) || end.isAfter(start.toLocalDate().plusDays(1).atStartOfDay())) {
+            return schedule(doctorId) == null ? -1 : 0;
+        }
+        return check(doctorId, start.toLocalDate(), mask(start, end));
+    }
+
+    private int check(Long doctorId, LocalDate date, long wanted) {
+        SlotSchedule schedule = schedule(doctorId);
+        if (schedule == null) {
+            return -1;
+        }
+        if (wanted == 0 || (wanted & ~schedule.dayFor(date).offered()) != 0) {
+            return 0;
+        }
+        return (wanted & bookedBits(doctorId, date)) == 0 ? 1 : 0;
+    }
+
+    // 4. Booked bits for a doctor-day, loaded from the database on a miss
+    public long bookedBits(Long doctorId, LocalDate date) {
+        DayKey key = new DayKey(doctorId, date);
+        Long bits = booked.get(key);
+        if (bits != null) {
+            return bits;
+        }
+        if (booked.size() >= maxDays) {
+            trim();
+        }
+        // Query outside the map's bin lock so a virtual thread blocking on JDBC does not pin its carrier
+        long seen = changes.get(doctorId);
+        long loaded = loadDay(key);
+        Long existing = booked.putIfAbsent(key, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        if (changes.get(doctorId) != seen) {
+            booked.remove(key, loaded);
+        }
+        return loaded;
+    }
+
+    // 5. Record a new booking once its transaction commits
+    public void onBooked(Appointment appointment) {
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDateTime start = appointment.getAppointmentTime();
+        long mask = mask(start, appointment.getEndTime());
+        AfterCommit.run(() -> {
+            changes.bump(doctorId);
+            booked.computeIfPresent(new DayKey(doctorId, start.toLocalDate()), (k, v) -> v | mask);
+        });
+    }
+
+    // 6. Drop a doctor-day after a cancel or reschedule so the next read reloads it
+    public void onReleased(Long doctorId, LocalDate date) {
+        AfterCommit.run(() -> {
+            changes.bump(doctorId);
+            booked.remove(new DayKey(doctorId, date));
+        });
+    }
+
+    // 7. Drop everything cached for a doctor after an update or delete
+    public void onDoctorChanged(Long doctorId) {
+        AfterCommit.run(() -> {
+            changes.bump(doctorId);
+            schedules.remove(doctorId);
+            booked.keySet().removeIf(k -> k.doctorId().equals(doctorId));
+        });
+    }
+
+    // 8. Drop everything, e.g. after a bulk import wrote rows behind the index's back
+    public void clear() {
+        changes.bumpAll();
+        schedules.clear();
+        booked.clear();
+    }
+
+    private SlotSchedule schedule(Long doctorId) {
+        SlotSchedule schedule = schedules.get(doctorId);
+        if (schedule != null) {
+            return schedule;
+        }
+        long seen = changes.get(doctorId);
+        Doctor doctor = primaryReads.execute(() -> doctorRepository.findById(doctorId).orElse(null));
+        if (doctor == null) {
+            return null;
+        }
+        SlotSchedule existing = schedules.putIfAbsent(doctorId, doctor.getSchedule());
+        if (existing != null) {
+            return existing;
+        }
+        if (changes.get(doctorId) != seen) {
+            schedules.remove(doctorId, doctor.getSchedule());
+        }
+        return doctor.getSchedule();
+    }
+
+    private long loadDay(DayKey key) {
+        List<Appointment> appointments = primaryReads.execute(() -> appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
+                key.doctorId(), key.date().atStartOfDay(), key.date().atTime(23, 59, 59)));
+        long bits = 0L;
+        for (Appointment a : appointments) {
+            bits |= mask(a.getAppointmentTime(), a.getEndTime());
+        }
+        return bits;
+    }
+
+    // Drop past days first; if that is not enough start over
+    private void trim() {
+        LocalDate today = LocalDate.now();
+        booked.keySet().removeIf(k -> k.date().isBefore(today));
+        if (booked.size() >= maxDays) {
+            booked.clear();
+        }
+    }
+
+    // "09:00-10:00" covers [09:00, 10:00); a bare "09:00" covers one hour
+    static long parseSlot(String label) {
+        return SlotSchedule.parseLabel(label);
+    }
+
+    // Appointments running past midnight are clipped to the end of their first day
+    static long mask(LocalDateTime start, LocalDateTime end) {
+        LocalTime endTime = end.toLocalDate().isAfter(start.toLocalDate()) ? LocalTime.MIDNIGHT : end.toLocalTime();
+        return SlotSchedule.mask(start.toLocalTime(), endTime);
+    }
+}
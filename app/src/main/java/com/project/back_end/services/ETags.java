@@ -0,0 +1,26 @@
+package com.project.back_end.services;
+
+// If-None-Match handling for the hand-built conditional responses
+public final class ETags {
+
+    private ETags() {}
+
+    // Weak comparison against a comma-separated If-None-Match list, "*" included
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String wanted = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || opaque(c).equals(wanted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
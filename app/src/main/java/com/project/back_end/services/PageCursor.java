@@ -0,0 +1,49 @@
+package com.project.back_end.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset continuation token: the sort key (optional time, then id) of the last row returned
+public record PageCursor(LocalDateTime time, long id) {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static PageCursor afterId(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public String encode() {
+        String raw = (time != null ? time.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null or blank means the first page; anything unreadable, or a cursor from a listing sorted
+    // the other way (timed says whether this listing sorts on time), is an IllegalArgumentException
+    public static PageCursor decode(String token, boolean timed) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        PageCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            String time = raw.substring(0, sep);
+            cursor = new PageCursor(time.isEmpty() ? null : LocalDateTime.parse(time), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if ((cursor.time() != null) != timed) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return cursor;
+    }
+
+    public static int clampSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+    }
+}
@@ -1,19 +1,21 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
-import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
-import com.project.back_end.serv.TokenService;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service // 1. Mark as a Spring service
 public class PatientService {
@@ -21,14 +23,21 @@ public class PatientService {
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final ArchivedAppointmentRepository archiveRepository;
+
+    private static final Comparator<AppointmentDTO> BY_TIME = Comparator
+            .comparing(AppointmentDTO::getAppointmentTime)
+            .thenComparing(AppointmentDTO::getId);
 
     // 2. Constructor Injection
     public PatientService(PatientRepository patientRepository,
                           AppointmentRepository appointmentRepository,
-                          TokenService tokenService) {
+                          TokenService tokenService,
+                          ArchivedAppointmentRepository archiveRepository) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.archiveRepository = archiveRepository;
     }
 
     // 3. Create patient
@@ -42,21 +51,44 @@ public class PatientService {
         }
     }
 
-    // 4. Get appointments for a patient
+    // 4. Get appointments for a patient (hot table only; archived history is opt-in)
     @Transactional(readOnly = true)
     public List<AppointmentDTO> getPatientAppointment(Long patientId) {
+        return getPatientAppointment(patientId, false);
+    }
+
+    // 4b. Get appointments for a patient, including archived ones when asked
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getPatientAppointment(Long patientId, boolean includeArchived) {
         try {
-            List<Appointment> appointments = appointmentRepository.findByPatientId(patientId);
-            return appointments.stream()
-                    .map(AppointmentDTO::new)
-                    .collect(Collectors.toList());
+            List<AppointmentDTO> hot = appointmentRepository.findDtoByPatientId(patientId);
+            return includeArchived ? merge(hot, archiveRepository.findDtoByPatientId(patientId)) : hot;
         } catch (Exception e) {
             e.printStackTrace();
             return List.of(); // Return empty list on error
         }
     }
 
-    // 5. Filter by condition: past or future
+    // 4a. One keyset page of a patient's appointments ordered by time, with an opaque cursor for the next page
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPatientAppointmentPage(Long patientId, String cursor, Integer size) {
+        PageCursor after = PageCursor.decode(cursor, true);
+        int pageSize = PageCursor.clampSize(size);
+        List<AppointmentDTO> rows = after == null
+                ? appointmentRepository.findDtoFirstPageByPatientId(patientId, Limit.of(pageSize + 1))
+                : appointmentRepository.findDtoPageByPatientId(patientId, after.time(), after.id(), Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<AppointmentDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+        AppointmentDTO last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("appointments", new ArrayList<>(page));
+        result.put("nextCursor", hasMore ? new PageCursor(last.getAppointmentTime(), last.getId()).encode() : null);
+        return result;
+    }
+
+    // 5. Filter by condition: past or future; "past" also reads the archive
     @Transactional(readOnly = true)
     public List<AppointmentDTO> filterByCondition(Long patientId, String condition) {
         try {
@@ -66,8 +98,8 @@ public class PatientService {
                 default -> throw new IllegalArgumentException("Invalid condition: " + condition);
             };
 
-            List<Appointment> appointments = appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(patientId, status);
-            return appointments.stream().map(AppointmentDTO::new).collect(Collectors.toList());
+            List<AppointmentDTO> hot = appointmentRepository.findDtoByPatientIdAndStatus(patientId, status);
+            return status == 1 ? merge(hot, archiveRepository.findDtoByPatientId(patientId)) : hot;
         } catch (IllegalArgumentException e) {
             System.err.println(e.getMessage());
             return List.of();
@@ -81,15 +113,14 @@ public class PatientService {
     @Transactional(readOnly = true)
     public List<AppointmentDTO> filterByDoctor(Long patientId, String doctorName) {
         try {
-            List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientId(doctorName, patientId);
-            return appointments.stream().map(AppointmentDTO::new).collect(Collectors.toList());
+            return appointmentRepository.filterDtoByDoctorNameAndPatientId(doctorName, patientId);
         } catch (Exception e) {
             e.printStackTrace();
             return List.of();
         }
     }
 
-    // 7. Filter by doctor and condition
+    // 7. Filter by doctor and condition; "past" also reads the archive
     @Transactional(readOnly = true)
     public List<AppointmentDTO> filterByDoctorAndCondition(Long patientId, String doctorName, String condition) {
         try {
@@ -99,8 +130,8 @@ public class PatientService {
                 default -> throw new IllegalArgumentException("Invalid condition: " + condition);
             };
 
-            List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientIdAndStatus(doctorName, patientId, status);
-            return appointments.stream().map(AppointmentDTO::new).collect(Collectors.toList());
+            List<AppointmentDTO> hot = appointmentRepository.filterDtoByDoctorNameAndPatientIdAndStatus(doctorName, patientId, status);
+            return status == 1 ? merge(hot, archiveRepository.filterDtoByDoctorNameAndPatientId(doctorName, patientId)) : hot;
         } catch (IllegalArgumentException e) {
             System.err.println(e.getMessage());
             return List.of();
@@ -120,4 +151,16 @@ public class PatientService {
             return Optional.empty();
         }
     }
+
+    // Both lists are time-ordered, but past rows the mover has not reached yet can interleave with archived ones
+    private static List<AppointmentDTO> merge(List<AppointmentDTO> hot, List<AppointmentDTO> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<AppointmentDTO> all = new ArrayList<>(hot.size() + archived.size());
+        all.addAll(archived);
+        all.addAll(hot);
+        all.sort(BY_TIME);
+        return all;
+    }
 }
@@ -0,0 +1,122 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.PrescriptionOutbox;
+import com.project.back_end.repo.PrescriptionOutboxRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// One-off copy of prescriptions saved straight to Mongo, before the outbox existed, into
+// prescription_outbox as SENT tombstones, so submit's unique appointmentId check covers them too.
+// Appointments that already have a row are skipped, so reruns insert nothing.
+@Component
+public class PrescriptionOutboxBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionOutboxBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PrescriptionOutboxRepository outboxRepository;
+
+    @Value("${prescription.outbox.backfill:true}")
+    private boolean enabled;
+
+    @Value("${prescription.outbox.batch-size:200}")
+    private int batchSize;
+
+    // 1. Constructor injection
+    public PrescriptionOutboxBackfill(MongoTemplate mongoTemplate, PrescriptionOutboxRepository outboxRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            // Mongo unreachable: start anyway and finish on the next start
+            log.warn("Prescription outbox backfill did not complete", e);
+        }
+    }
+
+    // 2. Stream appointment ids from Mongo in batches; returns the number of tombstones written
+    public int backfill() {
+        Query query = new Query().with(Sort.by("appointmentId"));
+        query.fields().include("appointmentId");
+
+        int inserted = 0;
+        List<Long> batch = new ArrayList<>(batchSize);
+        try (Stream<Prescription> prescriptions = mongoTemplate.stream(query, Prescription.class)) {
+            for (Prescription prescription : (Iterable<Prescription>) prescriptions::iterator) {
+                if (prescription.getAppointmentId() == null) {
+                    continue;
+                }
+                batch.add(prescription.getAppointmentId());
+                if (batch.size() == batchSize) {
+                    inserted += insertMissing(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            inserted += insertMissing(batch);
+        }
+        if (inserted > 0) {
+            log.info("Backfilled {} prescriptions into the outbox", inserted);
+        }
+        return inserted;
+    }
+
+    private int insertMissing(List<Long> appointmentIds) {
+        Set<Long> present = new HashSet<>(outboxRepository.findAppointmentIdsIn(appointmentIds));
+        List<PrescriptionOutbox> tombstones = new ArrayList<>();
+        for (Long appointmentId : appointmentIds) {
+            if (present.add(appointmentId)) {
+                tombstones.add(tombstone(appointmentId));
+            }
+        }
+        if (tombstones.isEmpty()) {
+            return 0;
+        }
+        try {
+            outboxRepository.saveAll(tombstones);
+            return tombstones.size();
+        } catch (DataIntegrityViolationException e) {
+            // A submit claimed one of these appointments meanwhile; its relay will hit the Mongo duplicate and fail the row
+            int inserted = 0;
+            for (PrescriptionOutbox tombstone : tombstones) {
+                try {
+                    outboxRepository.save(tombstone(tombstone.getAppointmentId()));
+                    inserted++;
+                } catch (DataIntegrityViolationException ignored) {
+                    // already there
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static PrescriptionOutbox tombstone(Long appointmentId) {
+        PrescriptionOutbox tombstone = new PrescriptionOutbox(appointmentId, null);
+        tombstone.setStatus(PrescriptionOutbox.SENT);
+        return tombstone;
+    }
+}
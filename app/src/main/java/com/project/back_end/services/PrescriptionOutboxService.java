@@ -0,0 +1,211 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.PrescriptionOutbox;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PrescriptionOutboxRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Transactional outbox for prescriptions: the appointment status change and the outbox row
+// commit together in MySQL, and a background relay copies pending rows into Mongo. Relayed rows
+// stay behind as tombstones (payload cleared) so their unique appointmentId keeps rejecting a second prescription
+@Service
+public class PrescriptionOutboxService {
+
+    // Appointment status once a prescription has been written for it
+    static final int STATUS_COMPLETED = 1;
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final PrescriptionOutboxRepository outboxRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final PrescriptionService prescriptionService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${prescription.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${prescription.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    // 1. Constructor injection
+    public PrescriptionOutboxService(PrescriptionOutboxRepository outboxRepository,
+                                     AppointmentRepository appointmentRepository,
+                                     MongoTemplate mongoTemplate,
+                                     PrescriptionService prescriptionService,
+                                     ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.prescriptionService = prescriptionService;
+        this.objectMapper = objectMapper;
+    }
+
+    // 2. Accept a prescription in one MySQL transaction (-2 appointment not found, -1 already exists, 0 error, 1 accepted)
+    @Transactional
+    public int submit(Prescription prescription) {
+        try {
+            if (appointmentRepository.updateStatus(STATUS_COMPLETED, prescription.getAppointmentId()) == 0) {
+                return -2;
+            }
+            // The unique appointmentId column rejects a second prescription at flush, including one already
+            // relayed (its tombstone) or saved before the outbox (backfilled by PrescriptionOutboxBackfill)
+            outboxRepository.saveAndFlush(new PrescriptionOutbox(
+                    prescription.getAppointmentId(), objectMapper.writeValueAsString(prescription)));
+            // Reads on this node see the prescription before the relay has copied it
+            AfterCommit.run(() -> prescriptionService.cachePrescription(prescription));
+            return 1;
+        } catch (DataIntegrityViolationException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return -1;
+        } catch (Exception e) {
+            // log error if needed
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return 0;
+        }
+    }
+
+    // 3. Relay due outbox rows to Mongo in batches until none are left
+    @Scheduled(fixedDelayString = "${prescription.outbox.relay-delay-ms:1000}")
+    public void relay() {
+        while (relayBatch() == batchSize) {
+            // keep draining a backlog without waiting for the next tick
+        }
+    }
+
+    // 4. One unordered bulk insert for a batch; returns the number of rows picked up
+    public int relayBatch() {
+        List<PrescriptionOutbox> batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                PrescriptionOutbox.PENDING, LocalDateTime.now(), Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<PrescriptionOutbox> sendable = new ArrayList<>(batch.size());
+        List<Prescription> documents = new ArrayList<>(batch.size());
+        for (PrescriptionOutbox entry : batch) {
+            try {
+                Prescription document = objectMapper.readValue(entry.getPayload(), Prescription.class);
+                document.setId(documentId(entry));
+                documents.add(document);
+                sendable.add(entry);
+            } catch (JsonProcessingException e) {
+                fail(entry, "Unreadable payload: " + e.getOriginalMessage(), true);
+            }
+        }
+
+        // Index in the batch -> error; duplicates are sorted out below
+        Map<Integer, String> errors = new HashMap<>();
+        List<Integer> duplicates = new ArrayList<>();
+        if (!documents.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class)
+                        .insert(documents)
+                        .execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        duplicates.add(error.getIndex());
+                    } else {
+                        errors.put(error.getIndex(), error.getMessage());
+                    }
+                }
+            } catch (RuntimeException e) {
+                for (int i = 0; i < documents.size(); i++) {
+                    errors.put(i, String.valueOf(e.getMessage()));
+                }
+            }
+        }
+        Map<Integer, String> conflicts = conflicts(duplicates, documents, errors);
+
+        for (int i = 0; i < sendable.size(); i++) {
+            PrescriptionOutbox entry = sendable.get(i);
+            String error = errors.get(i);
+            if (conflicts.containsKey(i)) {
+                fail(entry, conflicts.get(i), true);
+            } else if (error == null) {
+                entry.setStatus(PrescriptionOutbox.SENT);
+                entry.setPayload(null);
+                entry.setLastError(null);
+                entry.setNextAttemptAt(LocalDateTime.now());
+                prescriptionService.evictPrescription(entry.getAppointmentId());
+            } else {
+                fail(entry, error, false);
+            }
+        }
+        outboxRepository.saveAll(batch);
+        return batch.size();
+    }
+
+    // Duplicate key: the stored document either carries this row's id (an earlier attempt landed) or is
+    // another prescription for the appointment, which this row can never replace
+    private Map<Integer, String> conflicts(List<Integer> duplicates, List<Prescription> documents, Map<Integer, String> errors) {
+        Map<Integer, String> conflicts = new HashMap<>();
+        if (duplicates.isEmpty()) {
+            return conflicts;
+        }
+        Map<Long, String> storedIds = new HashMap<>();
+        try {
+            List<Long> appointmentIds = duplicates.stream().map(i -> documents.get(i).getAppointmentId()).toList();
+            mongoTemplate.find(byAppointmentId(appointmentIds), Prescription.class)
+                    .forEach(p -> storedIds.put(p.getAppointmentId(), p.getId()));
+        } catch (RuntimeException e) {
+            duplicates.forEach(i -> errors.put(i, String.valueOf(e.getMessage())));
+            return conflicts;
+        }
+        for (int i : duplicates) {
+            Prescription document = documents.get(i);
+            String stored = storedIds.get(document.getAppointmentId());
+            if (stored != null && !Objects.equals(stored, document.getId())) {
+                conflicts.put(i, "Another prescription already exists for this appointment");
+            }
+        }
+        return conflicts;
+    }
+
+    // Stable Mongo id per outbox row, so a retried insert collides with its own earlier attempt
+    static String documentId(PrescriptionOutbox entry) {
+        return String.format("%024x", entry.getId());
+    }
+
+    private static Query byAppointmentId(List<Long> appointmentIds) {
+        return Query.query(Criteria.where("appointmentId").in(appointmentIds));
+    }
+
+    // Exponential backoff capped at ten minutes; gives up after maxAttempts
+    private void fail(PrescriptionOutbox entry, String error, boolean permanent) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        if (permanent || attempts >= maxAttempts) {
+            entry.setStatus(PrescriptionOutbox.FAILED);
+            prescriptionService.evictPrescription(entry.getAppointmentId());
+        } else {
+            long delaySeconds = Math.min(600L, 1L << Math.min(attempts, 10));
+            entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(delaySeconds));
+        }
+    }
+}
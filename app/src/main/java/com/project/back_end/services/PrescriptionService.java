@@ -2,44 +2,72 @@ package com.project.back_end.services;
 
 import com.project.back_end.models.Prescription;
 import com.project.back_end.repo.PrescriptionRepository;
+import com.project.back_end.repo.ReactivePrescriptionRepository;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
 
 @Service // 1. Mark this class as a Spring service
 public class PrescriptionService {
 
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionService.class);
+
     private final PrescriptionRepository prescriptionRepository;
+    private final ReactivePrescriptionRepository reactivePrescriptionRepository;
+
+    // Read-through cache of prescriptions keyed by appointmentId; misses are never cached
+    private final ExpiringCache<Long, Prescription> cache;
+    private final long cacheTtlMillis;
+
+    // Reactive reads give up after this long instead of holding the response open
+    private final Duration reactiveTimeout;
 
     // 2. Constructor injection of dependencies
-    public PrescriptionService(PrescriptionRepository prescriptionRepository) {
+    public PrescriptionService(PrescriptionRepository prescriptionRepository,
+                               ReactivePrescriptionRepository reactivePrescriptionRepository,
+                               @Value("${prescription.cache.max-size:5000}") int cacheMaxSize,
+                               @Value("${prescription.cache.ttl-seconds:600}") long cacheTtlSeconds,
+                               @Value("${prescription.reactive.timeout-ms:5000}") long reactiveTimeoutMillis) {
         this.prescriptionRepository = prescriptionRepository;
+        this.reactivePrescriptionRepository = reactivePrescriptionRepository;
+        this.cache = new ExpiringCache<>(cacheMaxSize);
+        this.cacheTtlMillis = cacheTtlSeconds * 1000L;
+        this.reactiveTimeout = Duration.ofMillis(reactiveTimeoutMillis);
     }
 
-    // 3. Save prescription with check for existing prescription on same appointment
+    // 3. Save prescription, rejecting a second one for the same appointment
     public ResponseEntity<Map<String, String>> savePrescription(Prescription prescription) {
         Map<String, String> response = new HashMap<>();
 
         try {
-            // Check if prescription already exists for the appointment
-            List<Prescription> existingPrescriptions = prescriptionRepository.findByAppointmentId(prescription.getAppointmentId());
-
-            if (!existingPrescriptions.isEmpty()) {
-                response.put("message", "Prescription already exists for this appointment.");
-                return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
-            }
-
-            prescriptionRepository.save(prescription);
+            // Single insert; the unique appointmentId index rejects a second prescription atomically
+            Prescription saved = prescriptionRepository.insert(prescription);
+            cachePrescription(saved);
             response.put("message", "Prescription saved successfully.");
             return new ResponseEntity<>(response, HttpStatus.CREATED);
 
+        } catch (DuplicateKeyException e) {
+            response.put("message", "Prescription already exists for this appointment.");
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
-            e.printStackTrace(); // Ideally use a logger
+            log.error("Saving the prescription for appointment {} failed", prescription.getAppointmentId(), e);
             response.put("error", "Internal server error while saving prescription.");
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -50,21 +78,103 @@ public class PrescriptionService {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            List<Prescription> prescriptions = prescriptionRepository.findByAppointmentId(appointmentId);
-
-            if (prescriptions.isEmpty()) {
-                response.put("message", "No prescription found for the specified appointment.");
-                return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            Prescription prescription = cache.get(appointmentId);
+            if (prescription == null) {
+                List<Prescription> prescriptions = prescriptionRepository.findByAppointmentId(appointmentId);
+
+                if (prescriptions.isEmpty()) {
+                    response.put("message", "No prescription found for the specified appointment.");
+                    return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+                }
+
+                // Assuming one prescription per appointment, return the first one
+                prescription = prescriptions.get(0);
+                cachePrescription(prescription);
             }
 
-            // Assuming one prescription per appointment, return the first one
-            response.put("prescription", prescriptions.get(0));
+            response.put("prescription", prescription);
             return new ResponseEntity<>(response, HttpStatus.OK);
 
         } catch (Exception e) {
-            e.printStackTrace(); // Ideally use a logger
+            log.error("Fetching the prescription for appointment {} failed", appointmentId, e);
             response.put("error", "Internal server error while fetching prescription.");
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    // 4a. Non-blocking variant: served from the cache or the reactive driver, no request thread held meanwhile
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescriptionReactive(Long appointmentId) {
+        Prescription cached = cache.get(appointmentId);
+        Mono<Prescription> lookup = cached != null
+                ? Mono.just(cached)
+                : reactivePrescriptionRepository.findByAppointmentId(appointmentId).next().doOnNext(this::cachePrescription);
+
+        return lookup
+                .timeout(reactiveTimeout)
+                .map(prescription -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("prescription", prescription);
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .defaultIfEmpty(message(HttpStatus.NOT_FOUND, "message", "No prescription found for the specified appointment."))
+                .onErrorResume(this::readFailure);
+    }
+
+    // 4b. Prescriptions for several appointments: cache hits plus one $in query for the rest
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescriptionsReactive(Collection<Long> appointmentIds) {
+        Set<Long> missing = new LinkedHashSet<>();
+        List<Prescription> hits = new ArrayList<>();
+        for (Long appointmentId : appointmentIds) {
+            Prescription cached = cache.get(appointmentId);
+            if (cached != null) {
+                hits.add(cached);
+            } else {
+                missing.add(appointmentId);
+            }
+        }
+        Flux<Prescription> rest = missing.isEmpty()
+                ? Flux.empty()
+                : reactivePrescriptionRepository.findByAppointmentIdIn(missing).doOnNext(this::cachePrescription);
+
+        return Flux.fromIterable(hits).concatWith(rest)
+                .timeout(reactiveTimeout)
+                .collectList()
+                .map(prescriptions -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("prescriptions", prescriptions);
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .onErrorResume(this::readFailure);
+    }
+
+    private Mono<ResponseEntity<Map<String, Object>>> readFailure(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return Mono.just(message(HttpStatus.GATEWAY_TIMEOUT, "error", "Timed out while fetching prescription."));
+        }
+        log.error("Reactive prescription read failed", e);
+        return Mono.just(message(HttpStatus.INTERNAL_SERVER_ERROR, "error", "Internal server error while fetching prescription."));
+    }
+
+    private static ResponseEntity<Map<String, Object>> message(HttpStatus status, String key, String text) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(key, text);
+        return new ResponseEntity<>(response, status);
+    }
+
+    // 5. Put a freshly written prescription in the cache
+    public void cachePrescription(Prescription prescription) {
+        if (prescription != null && prescription.getAppointmentId() != null) {
+            cache.put(prescription.getAppointmentId(), prescription, System.currentTimeMillis() + cacheTtlMillis);
+        }
+    }
+
+    // 6. Drop a cached prescription; every code path that updates or deletes one must call this
+    public void evictPrescription(Long appointmentId) {
+        cache.invalidate(appointmentId);
+    }
+
+    // 7. Cache statistics (hits, misses, evictions, hit rate)
+    public ExpiringCache<Long, Prescription> getPrescriptionCache() {
+        return cache;
+    }
 }
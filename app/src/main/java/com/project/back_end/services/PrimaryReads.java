@@ -0,0 +1,33 @@
+package com.project.back_end.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Runs the loads that fill shared in-memory caches on the primary. A read-only transaction is served by a
+// replica, which may not have the write that just invalidated the entry yet; caching what it returns would
+// keep the stale answer until the next write. Joins a read-write transaction, otherwise starts one, and
+// starts a separate one when the caller's transaction is read-only.
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate separate;
+
+    // 1. Constructor injection
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.separate = new TransactionTemplate(transactionManager);
+        this.separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // 2. Run a load on the primary and return its result
+    public <T> T execute(Supplier<T> load) {
+        TransactionTemplate template = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? separate : readWrite;
+        return template.execute(status -> load.get());
+    }
+}
@@ -0,0 +1,70 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service // 1. Streams long doctor schedules without materialising them
+public class ScheduleExportService {
+
+    // Rows written between flushes; the first row is always flushed immediately
+    private static final int FLUSH_EVERY = 200;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archiveRepository;
+    private final AppointmentArchiveService archiveService;
+    private final ObjectMapper objectMapper;
+
+    // 2. Constructor injection
+    public ScheduleExportService(AppointmentRepository appointmentRepository,
+                                 ArchivedAppointmentRepository archiveRepository,
+                                 AppointmentArchiveService archiveService,
+                                 ObjectMapper objectMapper) {
+        this.appointmentRepository = appointmentRepository;
+        this.archiveRepository = archiveRepository;
+        this.archiveService = archiveService;
+        this.objectMapper = objectMapper;
+    }
+
+    // 3. Write a doctor's appointments in [from, to] as NDJSON while rows arrive from the cursor; a range
+    // starting before the archive horizon streams the archived rows first, each table in time order
+    @Transactional(readOnly = true)
+    public long exportSchedule(Long doctorId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        long count = 0;
+        if (archiveService.reachesArchive(start)) {
+            try (Stream<AppointmentDTO> rows = archiveRepository.streamDtoByDoctorIdAndTimeRange(doctorId, start, end)) {
+                count = write(rows, out, count);
+            }
+        }
+        try (Stream<AppointmentDTO> rows = appointmentRepository.streamDtoByDoctorIdAndTimeRange(doctorId, start, end)) {
+            count = write(rows, out, count);
+        }
+        out.flush();
+        return count;
+    }
+
+    private long write(Stream<AppointmentDTO> rows, OutputStream out, long count) throws IOException {
+        Iterator<AppointmentDTO> it = rows.iterator();
+        while (it.hasNext()) {
+            out.write(objectMapper.writeValueAsBytes(it.next()));
+            out.write('\n');
+            if (count++ % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        return count;
+    }
+}
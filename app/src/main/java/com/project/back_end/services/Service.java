@@ -1,6 +1,7 @@
 package com.project.back_end.services;
 
 import com.project.back_end.models.Admin;
+import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
@@ -11,9 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class Service {
@@ -24,6 +23,7 @@ public class Service {
     private final PatientRepository patientRepository;
     private final PatientService patientService;
     private final DoctorService doctorService;
+    private final DoctorDirectoryIndex doctorDirectoryIndex;
 
     // 2. Constructor Injection
     public Service(TokenService tokenService,
@@ -31,13 +31,15 @@ public class Service {
                    DoctorRepository doctorRepository,
                    PatientRepository patientRepository,
                    PatientService patientService,
-                   DoctorService doctorService) {
+                   DoctorService doctorService,
+                   DoctorDirectoryIndex doctorDirectoryIndex) {
         this.tokenService = tokenService;
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.patientService = patientService;
         this.doctorService = doctorService;
+        this.doctorDirectoryIndex = doctorDirectoryIndex;
     }
 
     // 3. validateToken Method
@@ -54,14 +56,60 @@ public class Service {
         }
     }
 
+    // 3a. authorize Method: the caller for a role, or null when unauthorized. A null or empty token
+    // means the Authorization header; a principal the filter already resolved is reused without
+    // validating again, and a path token is validated once and remembered for the rest of the request.
+    public AuthPrincipal authorize(String token, String role) {
+        if (token == null || token.isEmpty()) {
+            token = AuthPrincipal.bearerToken();
+            if (token == null) {
+                return null;
+            }
+        }
+        AuthPrincipal current = AuthPrincipal.current();
+        if (current != null && current.token().equals(token) && current.role().equalsIgnoreCase(role)) {
+            return current;
+        }
+        if (!tokenService.validateToken(token, role)) {
+            return null;
+        }
+        AuthPrincipal principal = new AuthPrincipal(token, tokenService.extractEmail(token),
+                tokenService.extractUserId(token), role.toLowerCase());
+        AuthPrincipal.remember(principal);
+        return principal;
+    }
+
+    // 3b. userId Method: the caller's id from the uid claim, or one lookup by subject for legacy tokens; null when unknown
+    public Long userId(AuthPrincipal principal) {
+        if (principal.userId() != null) {
+            return principal.userId();
+        }
+        switch (principal.role()) {
+            case "doctor" -> {
+                Doctor doctor = doctorRepository.findByEmail(principal.subject());
+                return doctor != null ? doctor.getId() : null;
+            }
+            case "patient" -> {
+                Patient patient = patientRepository.findByEmail(principal.subject());
+                return patient != null ? patient.getId() : null;
+            }
+            case "admin" -> {
+                Admin admin = adminRepository.findByUsername(principal.subject());
+                return admin != null ? admin.getId() : null;
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
     // 4. validateAdmin Method
     public ResponseEntity<?> validateAdmin(String username, String password) {
         try {
-            Optional<Admin> adminOpt = adminRepository.findByUsername(username);
-            if (adminOpt.isPresent()) {
-                Admin admin = adminOpt.get();
+            Admin admin = adminRepository.findByUsername(username);
+            if (admin != null) {
                 if (admin.getPassword().equals(password)) {
-                    String token = tokenService.generateToken(admin.getUsername());
+                    String token = tokenService.generateToken(admin.getUsername(), admin.getId(), "admin");
                     return ResponseEntity.ok(token);
                 } else {
                     return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -78,60 +126,16 @@ public class Service {
     }
 
     // 5. filterDoctor Method
+    // Any combination of name, specialty and AM/PM time is answered by the in-memory directory index
     public List<Doctor> filterDoctor(String name, String specialty, String time) {
-        // If no filters provided, return all doctors
-        if ((name == null || name.isEmpty()) &&
-            (specialty == null || specialty.isEmpty()) &&
-            (time == null || time.isEmpty())) {
-            return doctorRepository.findAll();
-        }
-
-        // Use DoctorService filtering logic
-        if (name != null && !name.isEmpty() && specialty != null && !specialty.isEmpty() && time != null && !time.isEmpty()) {
-            return doctorService.filterDoctorsByNameSpecilityandTime(name, specialty, time);
-        }
-
-        if (name != null && !name.isEmpty() && specialty != null && !specialty.isEmpty()) {
-            return doctorService.filterDoctorByNameAndSpecility(name, specialty);
-        }
-
-        if (name != null && !name.isEmpty() && time != null && !time.isEmpty()) {
-            return doctorService.filterDoctorByNameAndTime(name, time);
-        }
-
-        if (specialty != null && !specialty.isEmpty() && time != null && !time.isEmpty()) {
-            return doctorService.filterDoctorByTimeAndSpecility(time, specialty);
-        }
-
-        if (name != null && !name.isEmpty()) {
-            return doctorService.findDoctorByName(name);
-        }
-
-        if (specialty != null && !specialty.isEmpty()) {
-            return doctorService.filterDoctorBySpecility(specialty);
-        }
-
-        if (time != null && !time.isEmpty()) {
-            return doctorService.filterDoctorsByTime(time);
-        }
-
-        return doctorRepository.findAll();
+        return doctorDirectoryIndex.search(name, specialty, time);
     }
 
-    // 6. validateAppointment Method
-    public int validateAppointment(Long doctorId, LocalDate date, String appointmentTime) {
-        Optional<Doctor> doctorOpt = doctorRepository.findById(doctorId);
-        if (doctorOpt.isEmpty()) {
-            return -1; // Doctor not found
-        }
-
-        List<String> availableSlots = doctorService.getDoctorAvailability(doctorId, date);
-        for (String slot : availableSlots) {
-            if (slot.equalsIgnoreCase(appointmentTime)) {
-                return 1; // Valid appointment time
-            }
-        }
-        return 0; // Invalid appointment time
+    // 6. validateAppointment Method: every slot from the start to the end of the visit must be offered and free
+    public int validateAppointment(Appointment appointment) {
+        // -1 doctor not found, 0 invalid appointment time, 1 valid appointment time
+        return doctorService.checkSlots(appointment.getDoctor().getId(),
+                appointment.getAppointmentTime(), appointment.getEndTime());
     }
 
     // 7. validatePatient Method
@@ -148,7 +152,7 @@ public class Service {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Patient not found");
             }
             if (patient.getPassword().equals(password)) {
-                String token = tokenService.generateToken(patient.getEmail());
+                String token = tokenService.generateToken(patient.getEmail(), patient.getId(), "patient");
                 return ResponseEntity.ok(token);
             } else {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Incorrect password");
@@ -159,27 +163,28 @@ public class Service {
     }
 
     // 9. filterPatient Method
-    public ResponseEntity<?> filterPatient(String token, String condition, String doctorName) {
+    // The caller was authorized by the controller; its uid claim (or one lookup for legacy tokens) names the patient
+    public ResponseEntity<?> filterPatient(AuthPrincipal patient, String condition, String doctorName) {
         try {
-            String email = tokenService.extractEmail(token);
-            if (email == null) {
+            Long patientId = userId(patient);
+            if (patientId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
 
             if ((condition == null || condition.isEmpty()) && (doctorName == null || doctorName.isEmpty())) {
                 // Get all appointments for patient
-                return ResponseEntity.ok(patientService.getPatientAppointment(email));
+                return ResponseEntity.ok(patientService.getPatientAppointment(patientId));
             }
 
             if ((condition == null || condition.isEmpty())) {
-                return ResponseEntity.ok(patientService.filterByDoctor(email, doctorName));
+                return ResponseEntity.ok(patientService.filterByDoctor(patientId, doctorName));
             }
 
             if ((doctorName == null || doctorName.isEmpty())) {
-                return ResponseEntity.ok(patientService.filterByCondition(email, condition));
+                return ResponseEntity.ok(patientService.filterByCondition(patientId, condition));
             }
 
-            return ResponseEntity.ok(patientService.filterByDoctorAndCondition(email, doctorName, condition));
+            return ResponseEntity.ok(patientService.filterByDoctorAndCondition(patientId, doctorName, condition));
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Internal server error");
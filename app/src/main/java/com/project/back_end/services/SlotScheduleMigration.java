@@ -0,0 +1,78 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.SlotSchedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// One-off copy of the old doctor_available_times join table into doctor.slot_schedule.
+// Only doctors whose slot_schedule is still NULL are touched, so reruns are no-ops;
+// the join table can be dropped once every instance has started on this version.
+@Component
+public class SlotScheduleMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotScheduleMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DoctorSlotIndex slotIndex;
+    private final DoctorDirectoryIndex directoryIndex;
+    private final DoctorCache doctorCache;
+
+    // 1. Constructor injection
+    public SlotScheduleMigration(JdbcTemplate jdbcTemplate, DoctorSlotIndex slotIndex,
+                                 DoctorDirectoryIndex directoryIndex, DoctorCache doctorCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.slotIndex = slotIndex;
+        this.directoryIndex = directoryIndex;
+        this.doctorCache = doctorCache;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Map<Long, List<String>> labels = new LinkedHashMap<>();
+        try {
+            jdbcTemplate.query("SELECT t.doctor_id, t.available_times FROM doctor_available_times t "
+                    + "JOIN doctor d ON d.id = t.doctor_id WHERE d.slot_schedule IS NULL ORDER BY t.doctor_id", rs -> {
+                labels.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getString(2));
+            });
+        } catch (DataAccessException e) {
+            // No join table: a fresh schema, or already dropped
+            return;
+        }
+        if (labels.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>(labels.size());
+        labels.forEach((doctorId, times) -> updates.add(new Object[]{encode(doctorId, times), doctorId}));
+        jdbcTemplate.batchUpdate("UPDATE doctor SET slot_schedule = ? WHERE id = ?", updates);
+        slotIndex.clear();
+        directoryIndex.clear();
+        doctorCache.evictAll();
+        log.info("Migrated available times of {} doctors into slot_schedule", updates.size());
+    }
+
+    // Labels that no longer parse are dropped rather than blocking the migration
+    private static byte[] encode(Long doctorId, List<String> times) {
+        List<String> valid = new ArrayList<>(times.size());
+        for (String time : times) {
+            try {
+                SlotSchedule.parseLabel(time);
+                valid.add(time);
+            } catch (RuntimeException e) {
+                log.warn("Dropping unparseable slot '{}' of doctor {}", time, doctorId);
+            }
+        }
+        return SlotSchedule.daily(valid).encode();
+    }
+}
@@ -1,15 +1,12 @@
 package com.project.back_end.services;
 
-import com.project.back_end.models.Admin;
-import com.project.back_end.models.Doctor;
-import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
 import jakarta.annotation.PostConstruct;
@@ -17,12 +14,23 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.Optional;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class TokenService {
 
+    // Claim names carried inside the signed token
+    static final String ROLE_CLAIM = "role";
+    static final String USER_ID_CLAIM = "uid";
+
     private final AdminRepository adminRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
@@ -31,7 +39,35 @@ public class TokenService {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    // Trust the signed role/uid claims instead of looking the user up on every call
+    @Value("${jwt.claims.trusted:true}")
+    private boolean trustClaims;
+
+    // When > 0, re-check that a trusted subject still exists at most once per window
+    @Value("${jwt.claims.revalidate-seconds:0}")
+    private long revalidateSeconds;
+
+    // Upper bound on verified tokens kept in memory
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
     private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Verified claims keyed by token digest, each held until the token's own expiry
+    private ExpiringCache<String, Claims> verifiedTokens;
+
+    // Last time (epoch millis) each role:subject pair was confirmed against the database
+    private final Map<String, Long> lastRevalidated = new ConcurrentHashMap<>();
+
+    // validateToken outcome counts, keyed by outcome name; the key set is fixed at construction
+    static final String INVALID = "invalid";
+    static final String WRONG_ROLE = "wrong_role";
+    static final String TRUSTED = "trusted";
+    static final String REVALIDATED = "revalidated";
+    static final String LOOKUP = "lookup";
+    static final String UNKNOWN_USER = "unknown_user";
+    private final Map<String, LongAdder> validationOutcomes = new LinkedHashMap<>();
 
     // 2. Constructor injection
     public TokenService(AdminRepository adminRepository,
@@ -40,12 +76,17 @@ public class TokenService {
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
+        for (String outcome : new String[]{INVALID, WRONG_ROLE, TRUSTED, REVALIDATED, LOOKUP, UNKNOWN_USER}) {
+            validationOutcomes.put(outcome, new LongAdder());
+        }
     }
 
     // Initialize signing key once the jwtSecret is injected
     @PostConstruct
     private void init() {
         this.signingKey = getSigningKey();
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = new ExpiringCache<>(cacheMaxSize);
     }
 
     // 3. getSigningKey Method
@@ -54,59 +95,161 @@ public class TokenService {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes());
     }
 
-    // 4. generateToken Method
+    // 4. generateToken Method (legacy, subject only)
     public String generateToken(String email) {
+        return buildToken(email, null, null);
+    }
+
+    // 4a. generateToken with signed role and user id claims
+    public String generateToken(String subject, Long userId, String role) {
+        return buildToken(subject, userId, role);
+    }
+
+    private String buildToken(String subject, Long userId, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + 7 * 24 * 60 * 60 * 1000L); // 7 days
 
-        return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(signingKey, SignatureAlgorithm.HS256)
-                .compact();
+        var builder = Jwts.builder()
+                .subject(subject)
+                .issuedAt(now)
+                .expiration(expiryDate);
+
+        if (role != null) {
+            builder.claim(ROLE_CLAIM, role.toLowerCase());
+        }
+        if (userId != null) {
+            builder.claim(USER_ID_CLAIM, userId);
+        }
+
+        return builder.signWith(signingKey).compact();
     }
 
     // 5. extractEmail Method
     public String extractEmail(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+        Claims claims = parseClaims(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    // 5a. extractUserId Method, null for tokens issued without the uid claim
+    public Long extractUserId(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        Number uid = claims.get(USER_ID_CLAIM, Number.class);
+        return uid != null ? uid.longValue() : null;
+    }
+
+    // 5b. extractRole Method, null for tokens issued without the role claim
+    public String extractRole(String token) {
+        Claims claims = parseClaims(token);
+        return claims != null ? claims.get(ROLE_CLAIM, String.class) : null;
+    }
+
+    // 5c. Verified-token cache statistics
+    public ExpiringCache<String, Claims> getVerifiedTokenCache() {
+        return verifiedTokens;
+    }
 
-            return claims.getSubject();
+    // 5d. validateToken outcome counters (invalid, wrong_role, trusted, revalidated, lookup, unknown_user)
+    public Map<String, LongAdder> getValidationOutcomes() {
+        return validationOutcomes;
+    }
+
+    private Claims parseClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = digest(token);
+        Claims cached = verifiedTokens.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(key, claims, claims.getExpiration().getTime());
+            }
+            return claims;
         } catch (Exception e) {
             // Log exception if needed
             return null;
         }
     }
 
+    // SHA-256 of the token so the cache never holds usable credentials as keys
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     // 6. validateToken Method
     public boolean validateToken(String token, String role) {
         try {
-            String email = extractEmail(token);
-            if (email == null) {
-                return false;
+            Claims claims = parseClaims(token);
+            if (claims == null || claims.getSubject() == null || role == null) {
+                return outcome(INVALID, false);
             }
 
-            switch (role.toLowerCase()) {
-                case "admin":
-                    Optional<Admin> admin = adminRepository.findByUsername(email);
-                    return admin.isPresent();
-                case "doctor":
-                    Optional<Doctor> doctor = doctorRepository.findByEmail(email);
-                    return doctor.isPresent();
-                case "patient":
-                    Optional<Patient> patient = patientRepository.findByEmail(email);
-                    return patient.isPresent();
-                default:
-                    return false;
+            String email = claims.getSubject();
+            String tokenRole = claims.get(ROLE_CLAIM, String.class);
+
+            // Tokens carrying a role claim are checked without touching the database
+            if (trustClaims && tokenRole != null) {
+                if (!tokenRole.equalsIgnoreCase(role)) {
+                    return outcome(WRONG_ROLE, false);
+                }
+                if (!needsRevalidation(tokenRole, email)) {
+                    return outcome(TRUSTED, true);
+                }
+                return revalidate(tokenRole, email) ? outcome(REVALIDATED, true) : outcome(UNKNOWN_USER, false);
             }
+
+            return existsInRepository(role, email) ? outcome(LOOKUP, true) : outcome(UNKNOWN_USER, false);
         } catch (Exception e) {
             // Log exception if needed
+            return outcome(INVALID, false);
+        }
+    }
+
+    private boolean outcome(String name, boolean valid) {
+        validationOutcomes.get(name).increment();
+        return valid;
+    }
+
+    private boolean needsRevalidation(String role, String email) {
+        if (revalidateSeconds <= 0) {
             return false;
         }
+        Long last = lastRevalidated.get(role + ":" + email);
+        return last == null || System.currentTimeMillis() - last > revalidateSeconds * 1000L;
+    }
+
+    private boolean revalidate(String role, String email) {
+        String key = role + ":" + email;
+        if (existsInRepository(role, email)) {
+            lastRevalidated.put(key, System.currentTimeMillis());
+            return true;
+        }
+        lastRevalidated.remove(key);
+        return false;
+    }
+
+    private boolean existsInRepository(String role, String email) {
+        switch (role.toLowerCase()) {
+            case "admin":
+                return adminRepository.findByUsername(email) != null;
+            case "doctor":
+                return doctorRepository.findByEmail(email) != null;
+            case "patient":
+                return patientRepository.findByEmail(email) != null;
+            default:
+                return false;
+        }
     }
 }
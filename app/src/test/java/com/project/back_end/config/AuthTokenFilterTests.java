@@ -0,0 +1,115 @@
+package com.project.back_end.config;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.AuthPrincipal;
+import com.project.back_end.services.DoctorDirectoryIndex;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.PatientService;
+import com.project.back_end.services.Service;
+import com.project.back_end.services.TokenService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// A header token is validated once by the filter and reused by Service.authorize; path tokens still work
+class AuthTokenFilterTests {
+
+	private DoctorRepository doctorRepository;
+	private TokenService tokenService;
+	private Service service;
+	private AuthTokenFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		doctorRepository = mock(DoctorRepository.class);
+		when(doctorRepository.findByEmail(anyString())).thenReturn(new Doctor());
+
+		tokenService = new TokenService(mock(AdminRepository.class), doctorRepository, mock(PatientRepository.class));
+		ReflectionTestUtils.setField(tokenService, "jwtSecret", "$!@#$^%$$$%####$DDCPN0234FCFDPD8670M");
+		ReflectionTestUtils.setField(tokenService, "trustClaims", true);
+		ReflectionTestUtils.setField(tokenService, "cacheMaxSize", 100);
+		ReflectionTestUtils.invokeMethod(tokenService, "init");
+
+		service = new Service(tokenService, mock(AdminRepository.class), doctorRepository, mock(PatientRepository.class),
+				mock(PatientService.class), mock(DoctorService.class), mock(DoctorDirectoryIndex.class));
+		filter = new AuthTokenFilter(tokenService);
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void headerTokenIsValidatedOncePerRequest() throws Exception {
+		String token = tokenService.generateToken("doc@clinic.com", 7L, "doctor");
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/doctor/availability/doctor/1/2030-01-01");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		AtomicReference<AuthPrincipal> first = new AtomicReference<>();
+		AtomicReference<AuthPrincipal> second = new AtomicReference<>();
+		filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+			first.set(service.authorize(null, "doctor"));
+			second.set(service.authorize(token, "doctor"));
+		});
+
+		assertNotNull(first.get());
+		assertSame(first.get(), second.get());
+		assertEquals(7L, first.get().userId());
+		assertEquals(1, trusted());
+	}
+
+	@Test
+	void headerTokenForAnotherRoleIsRejected() throws Exception {
+		String token = tokenService.generateToken("doc@clinic.com", 7L, "doctor");
+		MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/doctor/delete/1");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		AtomicReference<AuthPrincipal> admin = new AtomicReference<>();
+		filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> admin.set(service.authorize(null, "admin")));
+
+		assertNull(admin.get());
+	}
+
+	@Test
+	void pathTokenWithoutHeaderIsValidatedAndRemembered() {
+		String token = tokenService.generateToken("doc@clinic.com", 7L, "doctor");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+		AuthPrincipal principal = service.authorize(token, "doctor");
+
+		assertNotNull(principal);
+		assertSame(principal, AuthPrincipal.current());
+		assertSame(principal, service.authorize(token, "doctor"));
+		assertEquals(1, trusted());
+	}
+
+	@Test
+	void missingTokenIsUnauthorized() {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+		assertNull(service.authorize(null, "doctor"));
+	}
+
+	private long trusted() {
+		return tokenService.getValidationOutcomes().get("trusted").sum();
+	}
+}
@@ -0,0 +1,177 @@
+package com.project.back_end.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.services.DoctorDirectoryIndex;
+import com.project.back_end.services.DoctorDirectoryResponse;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.DoctorSlotIndex;
+import com.project.back_end.services.PrimaryReads;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Two embedded H2 databases stand in for the primary and a replica; each answers with its own name
+class ReadWriteRoutingDataSourceTests {
+
+	private final AtomicLong lag = new AtomicLong();
+	private ReadWriteRoutingDataSource routing;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate readWrite;
+	private TransactionTemplate readOnly;
+	private PrimaryReads primaryReads;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = database("primary");
+		DataSource replica = database("replica");
+		use(new ReadWriteRoutingDataSource(primary, List.of(replica), connection -> lag.get(), 5));
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplica() {
+		assertEquals("replica", readOnly.execute(status -> server()));
+		assertEquals(1, routing.getReplicaReadCount());
+	}
+
+	@Test
+	void writesAndPlainTransactionsStayOnThePrimary() {
+		assertEquals("primary", readWrite.execute(status -> server()));
+		assertEquals("primary", server());
+		assertEquals(0, routing.getReplicaReadCount());
+	}
+
+	@Test
+	void laggingReplicaFallsBackToThePrimaryUntilItCatchesUp() {
+		lag.set(30);
+		routing.checkReplicas();
+		assertEquals(0, routing.getUsableReplicaCount());
+		assertEquals("primary", readOnly.execute(status -> server()));
+		assertEquals(1, routing.getFallbackCount());
+
+		lag.set(1);
+		routing.checkReplicas();
+		assertEquals("replica", readOnly.execute(status -> server()));
+	}
+
+	@Test
+	void unreachableReplicaFallsBackToThePrimary() {
+		use(new ReadWriteRoutingDataSource(database("primary"), List.of(unreachable()), connection -> 0L, 5));
+		routing.checkReplicas();
+
+		assertEquals("primary", readOnly.execute(status -> server()));
+	}
+
+	@Test
+	void primaryReadsLeaveAReadOnlyTransactionForThePrimary() {
+		assertEquals("replica", readOnly.execute(status -> {
+			assertEquals("primary", primaryReads.execute(this::server));
+			return server();
+		}));
+		assertEquals("primary", primaryReads.execute(this::server));
+	}
+
+	@Test
+	void slotIndexRefillAfterABookingReadsThePrimary() {
+		List<String> servers = new ArrayList<>();
+		Doctor doctor = new Doctor("Dr Routing", "General", "routing@clinic.com", "secret1", "5550000000", List.of("09:00-10:00"));
+		DoctorRepository doctorRepository = mock(DoctorRepository.class);
+		when(doctorRepository.findById(1L)).thenAnswer(inv -> {
+			servers.add(server());
+			return Optional.of(doctor);
+		});
+		AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+		when(appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(eq(1L), any(), any())).thenAnswer(inv -> {
+			servers.add(server());
+			return List.of();
+		});
+		DoctorSlotIndex slotIndex = new DoctorSlotIndex(doctorRepository, appointmentRepository, primaryReads);
+		ReflectionTestUtils.setField(slotIndex, "maxDays", 100);
+		LocalDate day = LocalDate.now().plusDays(1);
+
+		readOnly.execute(status -> slotIndex.availability(1L, day));
+		readWrite.execute(status -> {
+			slotIndex.onReleased(1L, day);
+			return null;
+		});
+		readOnly.execute(status -> slotIndex.availability(1L, day));
+
+		assertEquals(List.of("primary", "primary", "primary"), servers);
+		assertEquals(0, routing.getReplicaReadCount());
+	}
+
+	@Test
+	void directoryBodyRebuildReadsThePrimary() {
+		List<String> servers = new ArrayList<>();
+		DoctorService doctorService = mock(DoctorService.class);
+		when(doctorService.getDoctors()).thenAnswer(inv -> {
+			servers.add(server());
+			return List.of();
+		});
+		DoctorDirectoryIndex directoryIndex = mock(DoctorDirectoryIndex.class);
+		when(directoryIndex.version()).thenReturn(1L, 1L, 2L, 2L);
+		DoctorDirectoryResponse response = new DoctorDirectoryResponse(doctorService, directoryIndex, new ObjectMapper(), primaryReads);
+
+		readOnly.execute(status -> response.respond(null, null));
+		readOnly.execute(status -> response.respond(null, null));
+
+		assertEquals(List.of("primary", "primary"), servers);
+	}
+
+	// Wired the way ReplicaRoutingConfig wires it: the routing decision waits for the first statement
+	private void use(ReadWriteRoutingDataSource routingDataSource) {
+		routing = routingDataSource;
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		jdbc = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		primaryReads = new PrimaryReads(transactionManager);
+	}
+
+	private String server() {
+		return jdbc.queryForObject("SELECT name FROM server", String.class);
+	}
+
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE IF NOT EXISTS server (name VARCHAR(16))");
+		jdbc.update("DELETE FROM server");
+		jdbc.update("INSERT INTO server VALUES (?)", name);
+		return dataSource;
+	}
+
+	private static DataSource unreachable() {
+		return new JdbcDataSource() {
+			@Override
+			public Connection getConnection() throws SQLException {
+				throw new SQLException("connection refused");
+			}
+		};
+	}
+}
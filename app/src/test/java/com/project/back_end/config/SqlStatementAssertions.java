@@ -0,0 +1,31 @@
+package com.project.back_end.config;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Query-count assertions for repository/service blocks and, with sql.statements.header=true, MockMvc calls:
+//   mockMvc.perform(get("/doctor")).andExpect(SqlStatementAssertions.atMost(2));
+public final class SqlStatementAssertions {
+
+	private SqlStatementAssertions() {}
+
+	// MockMvc matcher on the X-SQL-Statements header written by SqlStatementFilter
+	public static ResultMatcher atMost(int max) {
+		return result -> {
+			String value = result.getResponse().getHeader(SqlStatementFilter.HEADER);
+			assertNotNull(value, "no " + SqlStatementFilter.HEADER + " header; set sql.statements.header=true");
+			int statements = Integer.parseInt(value);
+			assertTrue(statements <= max, result.getRequest().getRequestURI() + " ran " + statements
+					+ " SQL statements, expected at most " + max);
+		};
+	}
+
+	// Runs the block and fails if it prepared more than max statements
+	public static SqlStatementCounter.Tally assertAtMost(SqlStatementCounter counter, int max, Runnable block) {
+		SqlStatementCounter.Tally tally = counter.count(block);
+		assertTrue(tally.getStatements() <= max, "ran " + tally.getStatements()
+				+ " SQL statements, expected at most " + max + "; most repeated: " + tally.getMostRepeated());
+		return tally;
+	}
+}
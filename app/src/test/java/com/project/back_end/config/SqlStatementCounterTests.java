@@ -0,0 +1,71 @@
+package com.project.back_end.config;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The statement inspector sees every statement Hibernate prepares and exposes N+1 repeats
+@DataJpaTest
+@Import(SqlStatementCounter.class)
+class SqlStatementCounterTests {
+
+	private static final int DOCTORS = 10;
+
+	@Autowired
+	private SqlStatementCounter counter;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < DOCTORS; i++) {
+			Doctor doctor = entityManager.persist(new Doctor("Doctor " + i, "General", "count" + i + "@clinic.com",
+					"secret1", String.format("555100%04d", i), List.of("09:00-10:00", "14:00-15:00")));
+			ids.add(doctor.getId());
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void doctorsWithSlotsLoadInOneStatement() {
+		SqlStatementCounter.Tally tally = SqlStatementAssertions.assertAtMost(counter, 1, () ->
+				doctorRepository.findAll().forEach(d -> d.getAvailableTimes().size()));
+
+		assertEquals(1, tally.getStatements());
+	}
+
+	@Test
+	void loadingOneByOneShowsUpAsRepeatedStatement() {
+		SqlStatementCounter.Tally tally = counter.count(() -> ids.forEach(doctorRepository::findById));
+
+		assertEquals(DOCTORS, tally.getStatements());
+		assertEquals(DOCTORS, tally.getMostRepeated().getValue());
+	}
+
+	@Test
+	void statementsOutsideATallyAreNotCounted() {
+		doctorRepository.findAll();
+		SqlStatementCounter.Tally tally = counter.count(() -> {});
+
+		assertEquals(0, tally.getStatements());
+		assertNull(tally.getMostRepeated());
+	}
+}
@@ -0,0 +1,154 @@
+package com.project.back_end.config;
+
+import com.project.back_end.models.Admin;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.TokenService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Per-request statement counts through the real endpoints; streamed bodies are written off the request thread and not counted
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:sqlcount;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"api.path=/",
+		"jwt.secret=$!@#$^%$$$%####$DDCPN0234FCFDPD8670M",
+		"sql.statements.header=true",
+		"prescription.outbox.backfill=false"
+})
+@AutoConfigureMockMvc
+class SqlStatementFilterTests {
+
+	private static final int DOCTORS = 10;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private TokenService tokenService;
+
+	@Autowired
+	private AdminRepository adminRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Doctor> doctors = new ArrayList<>();
+	private Patient patient;
+	private final LocalDate day = LocalDate.now().plusDays(3);
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < DOCTORS; i++) {
+			doctors.add(doctorRepository.save(new Doctor("Doctor " + i, "General", "filter" + i + "@clinic.com",
+					"secret1", String.format("555200%04d", i), List.of("09:00-10:00", "14:00-15:00"))));
+		}
+		patient = patientRepository.save(new Patient("Counted Patient", "counted@mail.com", "secret1", "5553334444", "Main St"));
+		for (Doctor doctor : doctors) {
+			appointmentRepository.save(new Appointment(doctor, patient, day.atTime(9, 0), 0));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM appointment_slot");
+		jdbcTemplate.update("DELETE FROM appointment");
+		jdbcTemplate.update("DELETE FROM doctor");
+		jdbcTemplate.update("DELETE FROM patient");
+		jdbcTemplate.update("DELETE FROM admin");
+	}
+
+	@Test
+	void doctorPageLoadsInOneStatement() throws Exception {
+		mockMvc.perform(get("/doctor").param("size", "5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.doctors.length()").value(5))
+				.andExpect(SqlStatementAssertions.atMost(1));
+	}
+
+	@Test
+	void patientHistoryAcrossDoctorsIsNotAnNPlusOne() throws Exception {
+		String token = tokenService.generateToken(patient.getEmail(), patient.getId(), "patient");
+
+		mockMvc.perform(get("/patient/appointments/{id}/{token}/patient", patient.getId(), token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.appointments.length()").value(DOCTORS))
+				.andExpect(SqlStatementAssertions.atMost(1));
+	}
+
+	@Test
+	void streamedExportIsNotCountedAndItsBodyStillArrives() throws Exception {
+		Doctor doctor = doctors.get(0);
+		String token = tokenService.generateToken(doctor.getEmail(), doctor.getId(), "doctor");
+
+		MvcResult started = mockMvc.perform(get("/appointments/export/{id}/{from}/{to}/{token}", doctor.getId(), day, day, token))
+				.andExpect(request().asyncStarted())
+				.andExpect(SqlStatementAssertions.atMost(0))
+				.andReturn();
+		started.getAsyncResult();
+
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertEquals(1, body.lines().count());
+		assertTrue(body.contains("Doctor 0"));
+	}
+
+	@Test
+	void doctorCannotExportAnotherDoctorsSchedule() throws Exception {
+		Doctor caller = doctors.get(0);
+		String token = tokenService.generateToken(caller.getEmail(), caller.getId(), "doctor");
+
+		mockMvc.perform(get("/appointments/export/{id}/{from}/{to}/{token}", doctors.get(1).getId(), day, day, token))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void adminExportsAnyDoctorsSchedule() throws Exception {
+		Admin admin = adminRepository.save(new Admin("exportadmin", "secret1"));
+		String token = tokenService.generateToken(admin.getUsername(), admin.getId(), "admin");
+
+		MvcResult started = mockMvc.perform(get("/appointments/export/{id}/{from}/{to}/{token}", doctors.get(1).getId(), day, day, token))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		started.getAsyncResult();
+
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertTrue(body.contains("Doctor 1"));
+	}
+}
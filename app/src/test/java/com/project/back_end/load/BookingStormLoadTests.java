@@ -0,0 +1,252 @@
+package com.project.back_end.load;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.abort;
+
+// Booking storm against the real HTTP stack, with H2 (MySQL mode) and an embedded mongod standing in
+// for the databases. Excluded from the default build; run with: ./mvnw test -Pload-test
+// Tunable with -Dload.patients, -Dload.doctors, -Dload.concurrency and -Dload.seconds.
+// Mongo: -Dload.mongodb.uri=mongodb://host:port/prescriptions uses a mongod you already run. Otherwise an
+// embedded mongod is started; its first run downloads MongoDB 7.0 into ~/.embedmongo and later runs reuse
+// that copy offline. With neither a cached copy nor network access the test is skipped, not failed.
+// Thread-model comparison: run once with -Pload-test and once with -Pload-test,virtual-threads (JDK 21+),
+// using -Dload.concurrency above Tomcat's 200 threads, and compare the two reports.
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.format_sql=false",
+		"prescription.outbox.relay-delay-ms=200"
+})
+class BookingStormLoadTests {
+
+	private static final int PATIENTS = Integer.getInteger("load.patients", 500);
+	private static final int DOCTORS = Integer.getInteger("load.doctors", 40);
+	private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+	private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+	private static final String PASSWORD = "secret1";
+	private static final String[] SLOTS = {"09:00", "10:00", "11:00", "14:00", "15:00", "16:00"};
+	private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+	private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+	private static String mongoUri;
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final HttpClient http = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.executor(Executors.newFixedThreadPool(8))
+			.build();
+	private final LatencyRecorder recorder = new LatencyRecorder();
+
+	// Runs before the Spring context starts, so a missing mongod skips the test instead of breaking setup
+	@BeforeAll
+	static void startMongo() {
+		mongoUri = System.getProperty("load.mongodb.uri");
+		if (mongoUri != null) {
+			return;
+		}
+		try {
+			mongod = Mongod.instance().start(Version.Main.V7_0);
+		} catch (RuntimeException e) {
+			abort("No mongod available; pass -Dload.mongodb.uri or allow the one-time download into ~/.embedmongo: " + e.getMessage());
+		}
+		ServerAddress address = mongod.current().getServerAddress();
+		mongoUri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/prescriptions";
+	}
+
+	@DynamicPropertySource
+	static void mongo(DynamicPropertyRegistry registry) {
+		registry.add("spring.data.mongodb.uri", () -> mongoUri);
+	}
+
+	@AfterAll
+	static void stopMongo() {
+		if (mongod != null) {
+			mongod.close();
+		}
+	}
+
+	@Test
+	void bookingStorm() throws Exception {
+		List<Doctor> doctors = seedDoctors();
+		List<Patient> patients = seedPatients();
+		List<Long> prescribable = seedPastAppointments(doctors, patients);
+		AtomicInteger nextPrescription = new AtomicInteger();
+		String doctorToken = login("doctor_login", "/doctor/login", doctors.get(0).getEmail());
+		LocalDate day = LocalDate.now().plusDays(1);
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+		long started = System.nanoTime();
+		ExecutorService users = Executors.newFixedThreadPool(CONCURRENCY);
+		List<Future<?>> running = new ArrayList<>();
+		for (int u = 0; u < CONCURRENCY; u++) {
+			int user = u;
+			running.add(users.submit(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (System.nanoTime() < deadline) {
+					Patient patient = patients.get(random.nextInt(patients.size()));
+					String token = login("patient_login", "/patient/login", patient.getEmail());
+					// A short session: browse, check a few doctors, then try to book one of a few hot doctors
+					get("doctor_list", "/doctor");
+					for (int i = 0; i < 3; i++) {
+						Doctor doctor = doctors.get(random.nextInt(doctors.size()));
+						get("availability", "/doctor/availability/patient/" + doctor.getId() + "/" + day + "/" + token);
+					}
+					Doctor hot = doctors.get(random.nextInt(Math.min(5, doctors.size())));
+					String slot = SLOTS[random.nextInt(SLOTS.length)];
+					post("book", "/appointments/book/" + token, String.format(
+							"{\"doctor\":{\"id\":%d},\"patient\":{\"id\":%d},\"appointmentTime\":\"%sT%s:00\",\"status\":0}",
+							hot.getId(), patient.getId(), day, slot));
+					if (user % 8 == 0) {
+						int next = nextPrescription.getAndIncrement();
+						if (next < prescribable.size()) {
+							post("prescription", "/prescription/save/" + doctorToken, String.format(
+									"{\"patientName\":\"Patient\",\"appointmentId\":%d,\"medication\":\"Amoxicillin\",\"dosage\":\"500mg\"}",
+									prescribable.get(next)));
+						}
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : running) {
+			future.get();
+		}
+		users.shutdown();
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		System.out.printf("Booking storm (%s threads): %d virtual users, %d doctors, %d patients, %.1f s%n%s",
+				virtualThreads ? "virtual" : "platform", CONCURRENCY, DOCTORS, PATIENTS, seconds, recorder.report(seconds));
+		assertTrue(recorder.count("book") > 0, "no booking requests were sent");
+		assertEquals(0, recorder.failures(), "requests failed without an HTTP response");
+	}
+
+	private List<Doctor> seedDoctors() {
+		List<Doctor> doctors = new ArrayList<>(DOCTORS);
+		for (int i = 0; i < DOCTORS; i++) {
+			List<String> times = new ArrayList<>();
+			for (String slot : SLOTS) {
+				int hour = Integer.parseInt(slot.substring(0, 2));
+				times.add(slot + "-" + String.format("%02d:00", hour + 1));
+			}
+			doctors.add(new Doctor("Dr Load " + i, i % 2 == 0 ? "Cardiologist" : "Dermatologist",
+					"load.doctor" + i + "@clinic.com", PASSWORD, String.format("555%07d", i), times));
+		}
+		return doctorRepository.saveAll(doctors);
+	}
+
+	private List<Patient> seedPatients() {
+		List<Patient> patients = new ArrayList<>(PATIENTS);
+		for (int i = 0; i < PATIENTS; i++) {
+			patients.add(new Patient("Load Patient " + i, "load.patient" + i + "@mail.com", PASSWORD,
+					String.format("556%07d", i), i + " Main St"));
+		}
+		return patientRepository.saveAll(patients);
+	}
+
+	// Past visits the doctor can write prescriptions for. Inserted directly: the entity rejects past appointment times
+	private List<Long> seedPastAppointments(List<Doctor> doctors, List<Patient> patients) {
+		Long doctorId = doctors.get(0).getId();
+		LocalDateTime base = LocalDate.now().minusDays(30).atTime(9, 0);
+		List<Object[]> rows = new ArrayList<>(PATIENTS);
+		for (int i = 0; i < PATIENTS; i++) {
+			rows.add(new Object[]{doctorId, patients.get(i).getId(), Timestamp.valueOf(base.plusHours(i))});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO appointment (doctor_id, patient_id, appointment_time, status, duration_minutes) "
+				+ "VALUES (?, ?, ?, 0, 60)", rows);
+		return jdbcTemplate.queryForList("SELECT id FROM appointment WHERE doctor_id = ? AND appointment_time < ? ORDER BY id",
+				Long.class, doctorId, Timestamp.valueOf(LocalDateTime.now()));
+	}
+
+	private String login(String name, String path, String email) {
+		String body = post(name, path, "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}");
+		Matcher matcher = TOKEN.matcher(body);
+		return matcher.find() ? matcher.group(1) : body.trim();
+	}
+
+	private String get(String name, String path) {
+		return send(name, HttpRequest.newBuilder(uri(path)).GET());
+	}
+
+	private String post(String name, String path, String json) {
+		return send(name, HttpRequest.newBuilder(uri(path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json)));
+	}
+
+	private String send(String name, HttpRequest.Builder request) {
+		long start = System.nanoTime();
+		try {
+			HttpResponse<String> response = http.send(request.timeout(Duration.ofSeconds(30)).build(),
+					HttpResponse.BodyHandlers.ofString());
+			recorder.endpoint(name).record(System.nanoTime() - start, response.statusCode());
+			return response.body();
+		} catch (Exception e) {
+			recorder.endpoint(name).fail(System.nanoTime() - start);
+			return "";
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+}
@@ -0,0 +1,82 @@
+package com.project.back_end.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-endpoint latency samples and status counts, reported as throughput and p50/p99/p999
+class LatencyRecorder {
+
+	static final class Endpoint {
+		private long[] samples = new long[1024];
+		private int count;
+		private final Map<Integer, Integer> statuses = new TreeMap<>();
+		private int failures;
+
+		synchronized void record(long nanos, int status) {
+			if (count == samples.length) {
+				samples = Arrays.copyOf(samples, count * 2);
+			}
+			samples[count++] = nanos;
+			statuses.merge(status, 1, Integer::sum);
+		}
+
+		// No HTTP response at all (connection refused, timeout)
+		synchronized void fail(long nanos) {
+			failures++;
+			record(nanos, -1);
+		}
+
+		synchronized long[] sorted() {
+			long[] copy = Arrays.copyOf(samples, count);
+			Arrays.sort(copy);
+			return copy;
+		}
+	}
+
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+	Endpoint endpoint(String name) {
+		return endpoints.computeIfAbsent(name, k -> new Endpoint());
+	}
+
+	int count(String name) {
+		Endpoint endpoint = endpoints.get(name);
+		return endpoint == null ? 0 : endpoint.sorted().length;
+	}
+
+	int failures() {
+		return endpoints.values().stream().mapToInt(e -> e.failures).sum();
+	}
+
+	String report(double seconds) {
+		StringBuilder out = new StringBuilder(String.format("%-14s %8s %9s %9s %9s %9s %9s  %s%n",
+				"endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "statuses"));
+		new TreeMap<>(endpoints).forEach((name, endpoint) -> {
+			long[] sorted = endpoint.sorted();
+			if (sorted.length == 0) {
+				return;
+			}
+			Map<Integer, Integer> statuses;
+			synchronized (endpoint) {
+				statuses = new TreeMap<>(endpoint.statuses);
+			}
+			out.append(String.format("%-14s %8d %9.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+					name, sorted.length, sorted.length / seconds,
+					millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+					millis(percentile(sorted, 0.999)), millis(sorted[sorted.length - 1]), statuses));
+		});
+		return out.toString();
+	}
+
+	// Nearest-rank percentile
+	static long percentile(long[] sorted, double p) {
+		int rank = (int) Math.ceil(p * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+}
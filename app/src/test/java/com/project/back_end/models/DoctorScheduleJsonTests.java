@@ -0,0 +1,80 @@
+package com.project.back_end.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A doctor's schedule survives its own JSON, whatever the property order, and an update only replaces the parts it sends
+class DoctorScheduleJsonTests {
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+	private final LocalDate holiday = LocalDate.now().plusDays(10);
+
+	@Test
+	void scheduleRoundTripsThroughJson() throws Exception {
+		Doctor doctor = stored();
+
+		Doctor read = objectMapper.readValue(objectMapper.writeValueAsString(doctor), Doctor.class);
+
+		assertEquals(doctor.getSchedule(), read.getSchedule());
+		assertEquals(List.of(), read.getSchedule().weekday(DayOfWeek.SATURDAY).labels());
+		assertEquals(List.of(), read.getAvailabilityExceptions().get(holiday));
+	}
+
+	@Test
+	void weekdayOverridesWinWhateverTheOrder() throws Exception {
+		String times = "\"availableTimes\":[\"09:00-10:00\"]";
+		String weekly = "\"weeklyAvailability\":{\"SATURDAY\":[]}";
+		String exceptions = "\"availabilityExceptions\":{\"" + holiday + "\":[]}";
+
+		Doctor timesFirst = objectMapper.readValue("{" + times + "," + weekly + "," + exceptions + "}", Doctor.class);
+		Doctor timesLast = objectMapper.readValue("{" + exceptions + "," + weekly + "," + times + "}", Doctor.class);
+
+		assertEquals(stored().getSchedule(), timesFirst.getSchedule());
+		assertEquals(stored().getSchedule(), timesLast.getSchedule());
+	}
+
+	@Test
+	void updateWithOnlyAvailableTimesKeepsTheRest() throws Exception {
+		SlotSchedule stored = stored().getSchedule();
+
+		Doctor echo = objectMapper.readValue("{\"availableTimes\":[\"09:00-10:00\"]}", Doctor.class);
+		assertEquals(stored, echo.mergeSchedule(stored));
+
+		Doctor changed = objectMapper.readValue("{\"availableTimes\":[\"14:00-15:00\"]}", Doctor.class);
+		SlotSchedule merged = changed.mergeSchedule(stored);
+		assertEquals(List.of("14:00-15:00"), merged.weekday(DayOfWeek.SATURDAY).labels());
+		assertEquals(List.of(), merged.dayFor(holiday).labels());
+
+		Doctor untouched = objectMapper.readValue("{\"name\":\"Dr Renamed\"}", Doctor.class);
+		assertEquals(stored, untouched.mergeSchedule(stored));
+	}
+
+	@Test
+	void updateReplacesOnlyTheExceptionsItSends() throws Exception {
+		SlotSchedule stored = stored().getSchedule();
+		LocalDate other = holiday.plusDays(1);
+
+		Doctor doctor = objectMapper.readValue("{\"availabilityExceptions\":{\"" + other + "\":[\"13:00-14:00\"]}}", Doctor.class);
+		SlotSchedule merged = doctor.mergeSchedule(stored);
+
+		assertEquals(List.of(other), List.copyOf(merged.getExceptions().keySet()));
+		assertEquals(List.of(), merged.weekday(DayOfWeek.SATURDAY).labels());
+		assertEquals(List.of("09:00-10:00"), merged.weekday(DayOfWeek.MONDAY).labels());
+	}
+
+	private Doctor stored() {
+		Doctor doctor = new Doctor("Dr Json", "General", "json@clinic.com", "secret1", "5550003333", List.of("09:00-10:00"));
+		doctor.setSchedule(doctor.getSchedule()
+				.withWeekday(DayOfWeek.SATURDAY, List.of())
+				.withException(holiday, List.of()));
+		return doctor;
+	}
+}
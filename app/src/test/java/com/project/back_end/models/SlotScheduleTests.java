@@ -0,0 +1,61 @@
+package com.project.back_end.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Slot labels survive the bitmask encoding, and weekday templates and exceptions resolve per date
+class SlotScheduleTests {
+
+	private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+	@Test
+	void dailyLabelsRoundTripThroughTheColumnEncoding() {
+		List<String> labels = List.of("09:00-10:00", "10:00-11:00", "14:30-15:00", "23:00-00:00");
+		SlotSchedule schedule = SlotSchedule.daily(labels);
+
+		SlotSchedule decoded = SlotSchedule.decode(schedule.encode());
+
+		assertEquals(schedule, decoded);
+		assertEquals(labels, decoded.weeklyLabels());
+		assertEquals(labels, decoded.dayFor(MONDAY.plusDays(3)).labels());
+		assertEquals(87, schedule.encode().length);
+	}
+
+	@Test
+	void amAndPmAreMaskTests() {
+		SlotSchedule morning = SlotSchedule.daily(List.of("08:00-09:00", "11:30-12:00"));
+		SlotSchedule afternoon = SlotSchedule.daily(List.of("12:00-13:00"));
+
+		assertTrue(morning.offersAny(SlotSchedule.AM_MASK));
+		assertFalse(morning.offersAny(SlotSchedule.PM_MASK));
+		assertTrue(afternoon.offersAny(SlotSchedule.PM_MASK));
+		assertFalse(afternoon.offersAny(SlotSchedule.AM_MASK));
+	}
+
+	@Test
+	void weekdayTemplatesAndDateExceptionsResolvePerDate() {
+		SlotSchedule schedule = SlotSchedule.daily(List.of("09:00-10:00"))
+				.withWeekday(DayOfWeek.SATURDAY, List.of())
+				.withException(MONDAY, List.of("13:00-14:00"));
+
+		SlotSchedule decoded = SlotSchedule.decode(schedule.encode());
+
+		assertEquals(List.of("13:00-14:00"), decoded.dayFor(MONDAY).labels());
+		assertEquals(List.of("09:00-10:00"), decoded.dayFor(MONDAY.plusWeeks(1)).labels());
+		assertEquals(List.of(), decoded.dayFor(MONDAY.plusDays(5)).labels());
+		assertFalse(decoded.isUniform());
+		assertEquals(schedule, decoded);
+		assertTrue(decoded.withoutExceptionsBefore(MONDAY.plusDays(1)).getExceptions().isEmpty());
+	}
+
+	@Test
+	void unparseableLabelsAreRejected() {
+		assertThrows(RuntimeException.class, () -> SlotSchedule.daily(List.of("nine to ten")));
+		assertEquals(SlotSchedule.EMPTY, SlotSchedule.decode(null));
+	}
+}
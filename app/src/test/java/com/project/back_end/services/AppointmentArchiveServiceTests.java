@@ -0,0 +1,149 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Completed appointments past the retention window move to the archive in batches; default reads stay on the hot table,
+// historical ranges and exports include the archive
+@DataJpaTest(properties = {"appointments.archive.batch-size=2", "appointments.archive.pause-ms=0"})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({AppointmentArchiveService.class, PatientService.class, ScheduleExportService.class})
+class AppointmentArchiveServiceTests {
+
+	@Autowired
+	private AppointmentArchiveService archiveService;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private ScheduleExportService exportService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoBean
+	private TokenService tokenService;
+
+	private Patient patient;
+	private Doctor doctor;
+	private LocalDateTime old;
+
+	@BeforeEach
+	void setUp() {
+		patient = entityManager.persist(new Patient("Archive Patient", "archive@mail.com", "secret1", "5557654321", "Main St"));
+		doctor = entityManager.persist(new Doctor("Doctor Archive", "General", "archive@clinic.com",
+				"secret1", "5550009999", List.of("09:00-10:00")));
+		entityManager.flush();
+
+		// Inserted directly: the entity rejects past appointment times
+		old = LocalDateTime.now().minusDays(200).withHour(9).withMinute(0).withSecond(0).withNano(0);
+		for (int i = 0; i < 3; i++) {
+			insert(old.plusDays(i), 1);
+		}
+		insert(old, 0);
+		insert(LocalDateTime.now().minusDays(10).withHour(9).withMinute(0).withSecond(0).withNano(0), 1);
+		Long oldest = jdbcTemplate.queryForObject("SELECT MIN(id) FROM appointment", Long.class);
+		jdbcTemplate.update("INSERT INTO appointment_slot (doctor_id, slot_start, appointment_id) VALUES (?, ?, ?)",
+				doctor.getId(), old, oldest);
+	}
+
+	@Test
+	void movesOnlyCompletedAppointmentsOlderThanTheRetentionWindow() {
+		assertEquals(3, archiveService.archive());
+
+		assertEquals(2, count("appointment"));
+		assertEquals(3, count("appointment_archive"));
+		assertEquals(0, count("appointment_slot"));
+		assertEquals(0, archiveService.archive());
+	}
+
+	@Test
+	void defaultListingSkipsTheArchiveAndHistoryIncludesIt() {
+		archiveService.archive();
+		entityManager.clear();
+
+		assertEquals(2, patientService.getPatientAppointment(patient.getId()).size());
+		assertEquals(5, patientService.getPatientAppointment(patient.getId(), true).size());
+
+		List<AppointmentDTO> past = patientService.filterByCondition(patient.getId(), "past");
+		assertEquals(4, past.size());
+		for (int i = 1; i < past.size(); i++) {
+			assertFalse(past.get(i).getAppointmentTime().isBefore(past.get(i - 1).getAppointmentTime()));
+		}
+		assertEquals(4, patientService.filterByDoctorAndCondition(patient.getId(), "archive", "past").size());
+	}
+
+	@Test
+	void exportAcrossTheHorizonStreamsTheArchiveFirst() throws IOException {
+		archiveService.archive();
+		entityManager.clear();
+
+		List<JsonNode> all = export(old.toLocalDate().minusDays(1), LocalDate.now());
+		List<JsonNode> recent = export(LocalDate.now().minusDays(11), LocalDate.now());
+
+		assertEquals(5, all.size());
+		for (int i = 0; i < 3; i++) {
+			assertTrue(all.get(i).get("appointmentTime").asText().startsWith(old.toLocalDate().plusDays(i).toString()));
+			assertEquals(1, all.get(i).get("status").asInt());
+		}
+		assertEquals(1, recent.size());
+	}
+
+	@Test
+	void rangesAfterTheHorizonNeverReachTheArchive() {
+		assertFalse(archiveService.reachesArchive(LocalDateTime.now().minusDays(1)));
+		assertTrue(archiveService.reachesArchive(LocalDateTime.now().minusDays(200)));
+	}
+
+	private void insert(LocalDateTime time, int status) {
+		jdbcTemplate.update("INSERT INTO appointment (doctor_id, patient_id, appointment_time, status, duration_minutes) "
+				+ "VALUES (?, ?, ?, ?, ?)", doctor.getId(), patient.getId(), time, status, 60);
+	}
+
+	private List<JsonNode> export(LocalDate from, LocalDate to) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.exportSchedule(doctor.getId(), from, to, out);
+		List<JsonNode> rows = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			if (!line.isEmpty()) {
+				rows.add(objectMapper.readTree(line));
+			}
+		}
+		return rows;
+	}
+
+	private int count(String table) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+}
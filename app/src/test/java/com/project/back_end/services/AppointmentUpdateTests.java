@@ -0,0 +1,116 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Rescheduling keeps the stored duration unless the request carries a new one; visits start and end on slot boundaries
+@DataJpaTest
+@Import({AppointmentService.class, DoctorSlotIndex.class, AppointmentIntervalIndex.class, AppointmentArchiveService.class, PrimaryReads.class})
+class AppointmentUpdateTests {
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@MockitoBean
+	private TokenService tokenService;
+
+	private Patient patient;
+	private Appointment appointment;
+
+	@BeforeEach
+	void setUp() {
+		Doctor doctor = entityManager.persist(new Doctor("Dr Update", "General", "update@clinic.com",
+				"secret1", "5550001111", List.of("09:00-10:00", "10:00-11:00", "11:00-12:00")));
+		patient = entityManager.persist(new Patient("Update Patient", "update@mail.com", "secret1", "5551112222", "Main St"));
+		Appointment booked = new Appointment(doctor, patient, LocalDate.now().plusDays(3).atTime(9, 0), 0);
+		booked.setDurationMinutes(90);
+		assertEquals(1, appointmentService.bookAppointment(booked));
+		appointment = booked;
+	}
+
+	@Test
+	void rescheduleWithoutDurationKeepsTheStoredOne() {
+		LocalDateTime later = appointment.getAppointmentTime().plusHours(1);
+
+		String result = appointmentService.updateAppointment(appointment.getId(), request(later, null), patient.getId());
+
+		assertEquals("Appointment updated successfully.", result);
+		Appointment stored = appointmentRepository.findById(appointment.getId()).orElseThrow();
+		assertEquals(90, stored.getDurationMinutes());
+		assertEquals(later.plusMinutes(90), stored.getEndTime());
+	}
+
+	@Test
+	void rescheduleWithDurationReplacesIt() {
+		appointmentService.updateAppointment(appointment.getId(),
+				request(appointment.getAppointmentTime(), 30), patient.getId());
+
+		assertEquals(30, appointmentRepository.findById(appointment.getId()).orElseThrow().getDurationMinutes());
+	}
+
+	@Test
+	void newAppointmentWithoutDurationIsStoredAsOneHour() {
+		Appointment plain = new Appointment(appointment.getDoctor(), patient, LocalDate.now().plusDays(4).atTime(9, 0), 0);
+
+		assertNull(plain.getRequestedDurationMinutes());
+		entityManager.persistAndFlush(plain);
+		assertEquals(Appointment.DEFAULT_DURATION_MINUTES, plain.getRequestedDurationMinutes());
+	}
+
+	@Test
+	void backToBackSubSlotVisitsAreRejectedBeforeClaimingSlots() {
+		// 09:00-09:15 and 09:15-09:30 do not overlap but would both claim the 09:00 slot
+		LocalDateTime nine = appointment.getAppointmentTime();
+		Appointment second = new Appointment(appointment.getDoctor(), patient, nine.plusMinutes(15), 0);
+		second.setDurationMinutes(15);
+
+		String result = appointmentService.updateAppointment(appointment.getId(), request(nine, 15), patient.getId());
+
+		assertEquals("Appointment must start and end on a slot boundary.", result);
+		assertFalse(second.isOnSlotBoundaries());
+		assertEquals(90, appointmentRepository.findById(appointment.getId()).orElseThrow().getDurationMinutes());
+	}
+
+	@Test
+	void backToBackSlotVisitsBothBook() {
+		LocalDateTime nine = appointment.getAppointmentTime();
+		assertEquals("Appointment updated successfully.",
+				appointmentService.updateAppointment(appointment.getId(), request(nine, 30), patient.getId()));
+
+		Appointment next = new Appointment(appointment.getDoctor(), patient, nine.plusMinutes(30), 0);
+		next.setDurationMinutes(30);
+
+		assertTrue(next.isOnSlotBoundaries());
+		assertEquals(1, appointmentService.bookAppointment(next));
+	}
+
+	private static Appointment request(LocalDateTime time, Integer duration) {
+		Appointment update = new Appointment();
+		update.setAppointmentTime(time);
+		update.setStatus(0);
+		update.setDurationMinutes(duration);
+		return update;
+	}
+}
@@ -0,0 +1,96 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.AppointmentSlotRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Many patients race for the same doctor-slot; exactly one booking may win
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AppointmentService.class, DoctorSlotIndex.class, AppointmentIntervalIndex.class, AppointmentArchiveService.class, PrimaryReads.class})
+class BookingConcurrencyTests {
+
+	private static final int THREADS = 32;
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private AppointmentSlotRepository slotRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@MockitoBean
+	private TokenService tokenService;
+
+	@Test
+	void onlyOneConcurrentBookingWinsTheSlot() throws Exception {
+		Doctor doctor = doctorRepository.save(new Doctor("Dr Stress", "Cardiology", "stress@clinic.com",
+				"secret1", "5550000000", List.of("09:00-10:00")));
+		List<Patient> patients = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			patients.add(patientRepository.save(new Patient("Patient " + i, "p" + i + "@mail.com",
+					"secret1", String.format("555%07d", i + 1), "Main St")));
+		}
+		LocalDateTime slot = LocalDate.now().plusDays(7).atTime(9, 0);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (Patient patient : patients) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return appointmentService.bookAppointment(new Appointment(doctor, patient, slot, 0));
+			}));
+		}
+		start.countDown();
+
+		int booked = 0;
+		int conflicts = 0;
+		for (Future<Integer> result : results) {
+			int outcome = result.get(30, TimeUnit.SECONDS);
+			if (outcome == 1) {
+				booked++;
+			} else if (outcome == -1) {
+				conflicts++;
+			}
+		}
+		pool.shutdown();
+
+		assertEquals(1, booked);
+		assertEquals(THREADS - 1, conflicts);
+		assertEquals(1, appointmentRepository.count());
+		assertEquals(2, slotRepository.count());
+	}
+}
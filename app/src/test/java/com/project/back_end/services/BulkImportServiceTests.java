@@ -0,0 +1,208 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// CSV/NDJSON parsing, per-chunk error reporting and slot claims of the bulk import
+@DataJpaTest(properties = "import.chunk-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import(BulkImportService.class)
+class BulkImportServiceTests {
+
+	private static final String PATIENT_HEADER = "name,email,password,phone,address\n";
+
+	@Autowired
+	private BulkImportService importService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockitoBean
+	private DoctorSlotIndex slotIndex;
+
+	@MockitoBean
+	private AppointmentIntervalIndex intervalIndex;
+
+	@MockitoBean
+	private DoctorDirectoryIndex directoryIndex;
+
+	@MockitoBean
+	private DoctorCache doctorCache;
+
+	@MockitoBean
+	private TokenService tokenService;
+
+	private final LocalDate day = LocalDate.now().plusDays(5);
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM appointment_slot");
+		jdbcTemplate.update("DELETE FROM appointment");
+		jdbcTemplate.update("DELETE FROM doctor");
+		jdbcTemplate.update("DELETE FROM patient");
+	}
+
+	@Test
+	void splitHandlesQuotedCommasAndEscapedQuotes() {
+		assertEquals(List.of("a", "b, c", "say \"hi\"", "", "d"),
+				BulkImportService.CsvRowReader.split("a,\"b, c\",\"say \"\"hi\"\"\",, d "));
+	}
+
+	@Test
+	void wrongColumnCountIsARowErrorAndTheRestIsImported() throws Exception {
+		List<Map<String, Object>> lines = run("patients", "csv", PATIENT_HEADER
+				+ "Ann Lee,ann@mail.com,secret1,5550000001,\"1 Main St, Apt 2\"\n"
+				+ "Bob Ray,bob@mail.com\n"
+				+ "Cy Fox,cy@mail.com,secret1,5550000003,Elm St\n");
+
+		Map<String, Object> first = lines.get(0);
+		assertEquals(1, first.get("chunk"));
+		assertEquals(2, first.get("rows"));
+		assertEquals(1, first.get("inserted"));
+		assertEquals(List.of(Map.of("line", 3, "message", "Expected 5 columns, found 2")), first.get("errors"));
+		assertEquals("1 Main St, Apt 2",
+				jdbcTemplate.queryForObject("SELECT address FROM patient WHERE email = 'ann@mail.com'", String.class));
+		assertSummary(lines, 2, 3, 2);
+	}
+
+	@Test
+	void malformedNdjsonLineIsReportedWithItsLineNumber() throws Exception {
+		List<Map<String, Object>> lines = run("patients", "ndjson",
+				"{\"name\":\"Ann Lee\",\"email\":\"ann@mail.com\",\"password\":\"secret1\",\"phone\":\"5550000001\",\"address\":\"Main St\"}\n"
+						+ "\n"
+						+ "{\"name\":\"Bob Ray\",\n");
+
+		assertEquals(List.of(Map.of("line", 3, "message", "Malformed JSON")), lines.get(0).get("errors"));
+		assertSummary(lines, 1, 2, 1);
+	}
+
+	@Test
+	void invalidAndDuplicateRowsFailAloneInTheirChunk() throws Exception {
+		jdbcTemplate.update("INSERT INTO patient (name, email, password, phone, address) "
+				+ "VALUES ('Old One', 'old@mail.com', 'secret1', '5550000009', 'Main St')");
+
+		List<Map<String, Object>> lines = run("patients", "csv", PATIENT_HEADER
+				+ "Ann Lee,ann@mail.com,secret1,5550000001,Main St\n"
+				+ "Ann Again,ann@mail.com,secret1,5550000002,Main St\n"
+				+ "Old One,old@mail.com,secret1,5550000009,Main St\n"
+				+ "No Phone,nophone@mail.com,secret1,12,Main St\n");
+
+		assertEquals(List.of(Map.of("line", 3, "message", "Duplicate email in file: ann@mail.com")), lines.get(0).get("errors"));
+		List<?> second = (List<?>) lines.get(1).get("errors");
+		assertEquals(2, second.size());
+		assertTrue(second.contains(Map.of("line", 4, "message", "Already exists: old@mail.com")));
+		assertSummary(lines, 2, 4, 1);
+	}
+
+	@Test
+	void importedAppointmentsClaimTheirSlots() throws Exception {
+		seedDoctorAndPatient();
+
+		List<Map<String, Object>> lines = run("appointments", "csv", appointments(
+				row(day.atTime(9, 0), 90),
+				row(day.atTime(11, 0), 30)));
+
+		assertSummary(lines, 1, 2, 2);
+		int expected = AppointmentService.slotStarts(day.atTime(9, 0), day.atTime(10, 30)).size()
+				+ AppointmentService.slotStarts(day.atTime(11, 0), day.atTime(11, 30)).size();
+		assertEquals(expected, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment_slot", Integer.class));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment a WHERE NOT EXISTS "
+				+ "(SELECT 1 FROM appointment_slot s WHERE s.appointment_id = a.id)", Integer.class));
+	}
+
+	@Test
+	void overlappingRowsAndBookedSlotsAreRowErrors() throws Exception {
+		seedDoctorAndPatient();
+		run("appointments", "csv", appointments(row(day.atTime(14, 0), 60)));
+
+		List<Map<String, Object>> lines = run("appointments", "csv", appointments(
+				row(day.atTime(9, 0), 60),
+				row(day.atTime(9, 30), 60),
+				row(day.atTime(14, 30), 30)));
+
+		assertEquals(List.of(Map.of("line", 3, "message", "Overlaps the appointment on line 2")), lines.get(0).get("errors"));
+		assertEquals(List.of(Map.of("line", 4, "message", "Doctor already has an appointment at that time")),
+				lines.get(1).get("errors"));
+		assertSummary(lines, 2, 3, 1);
+		assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment", Integer.class));
+	}
+
+	@Test
+	void unknownEmailsAndBadValuesAreRowErrors() throws Exception {
+		seedDoctorAndPatient();
+
+		List<Map<String, Object>> lines = run("appointments", "csv", "doctorEmail,patientEmail,appointmentTime,durationMinutes\n"
+				+ "ghost@clinic.com,pat@mail.com," + day.atTime(9, 0) + ",60\n"
+				+ "doc@clinic.com,pat@mail.com," + day.atTime(10, 0) + ",1\n"
+				+ "doc@clinic.com,pat@mail.com," + day.atTime(11, 15) + ",30\n");
+
+		assertEquals(List.of(Map.of("line", 2, "message", "Unknown doctorEmail"),
+						Map.of("line", 3, "message", "Invalid appointment: status must be 0-2 and durationMinutes 30-720")),
+				lines.get(0).get("errors"));
+		assertEquals(List.of(Map.of("line", 4, "message",
+						"Invalid appointment: appointmentTime and durationMinutes must fall on 30-minute slot boundaries")),
+				lines.get(1).get("errors"));
+		assertSummary(lines, 2, 3, 0);
+	}
+
+	private void seedDoctorAndPatient() throws Exception {
+		run("doctors", "ndjson", "{\"name\":\"Dr Import\",\"specialty\":\"General\",\"email\":\"doc@clinic.com\","
+				+ "\"password\":\"secret1\",\"phone\":\"5550001111\",\"availableTimes\":[\"09:00-10:00\"]}\n");
+		run("patients", "csv", PATIENT_HEADER + "Pat Import,pat@mail.com,secret1,5551112222,Main St\n");
+	}
+
+	private static String appointments(String... rows) {
+		return "doctorEmail,patientEmail,appointmentTime,durationMinutes\n" + String.join("", rows);
+	}
+
+	private static String row(LocalDateTime time, int minutes) {
+		return "doc@clinic.com,pat@mail.com," + time + "," + minutes + "\n";
+	}
+
+	private static void assertSummary(List<Map<String, Object>> lines, int chunks, int rows, int inserted) {
+		Map<String, Object> summary = lines.get(lines.size() - 1);
+		assertEquals(true, summary.get("done"));
+		assertEquals(chunks, summary.get("chunks"));
+		assertEquals(rows, summary.get("rows"));
+		assertEquals(inserted, summary.get("inserted"));
+		assertEquals(rows - inserted, summary.get("failed"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Map<String, Object>> run(String entity, String format, String body) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		importService.importStream(entity, format, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+		List<Map<String, Object>> lines = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			lines.add(objectMapper.readValue(line, Map.class));
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,139 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// ETags of the doctor directory and of availability move exactly when their content can have changed,
+// and a matching If-None-Match is answered without a query
+class ConditionalResponseTests {
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+	private final List<Doctor> stored = new ArrayList<>();
+	private DoctorService doctorService;
+	private DoctorDirectoryIndex directoryIndex;
+	private DoctorDirectoryResponse directoryResponse;
+
+	@BeforeEach
+	void setUp() {
+		PrimaryReads primaryReads = new PrimaryReads(mock(PlatformTransactionManager.class));
+		doctorService = mock(DoctorService.class);
+		when(doctorService.getDoctors()).thenAnswer(inv -> new ArrayList<>(stored));
+		directoryIndex = new DoctorDirectoryIndex(mock(DoctorRepository.class), primaryReads);
+		directoryResponse = new DoctorDirectoryResponse(doctorService, directoryIndex, objectMapper, primaryReads);
+		stored.add(doctor(1L, "Dr First"));
+	}
+
+	@Test
+	void matchingETagIsNotModifiedWithoutAQuery() {
+		ResponseEntity<byte[]> first = directoryResponse.respond(null, null);
+		String etag = first.getHeaders().getETag();
+
+		ResponseEntity<byte[]> revalidated = directoryResponse.respond(etag, null);
+		ResponseEntity<byte[]> listed = directoryResponse.respond("\"other\", " + etag.substring(2), null);
+
+		assertEquals(HttpStatus.OK, first.getStatusCode());
+		assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+		assertEquals(etag, revalidated.getHeaders().getETag());
+		assertNull(revalidated.getBody());
+		assertEquals(HttpStatus.NOT_MODIFIED, listed.getStatusCode());
+		verify(doctorService, times(1)).getDoctors();
+	}
+
+	@Test
+	void doctorWriteRebuildsTheBodyOnce() throws IOException {
+		String before = directoryResponse.respond(null, null).getHeaders().getETag();
+		Doctor added = doctor(2L, "Dr Second");
+		stored.add(added);
+
+		directoryIndex.onSaved(added);
+		ResponseEntity<byte[]> stale = directoryResponse.respond(before, null);
+		directoryResponse.respond(null, null);
+
+		assertEquals(HttpStatus.OK, stale.getStatusCode());
+		assertNotEquals(before, stale.getHeaders().getETag());
+		assertEquals(2, objectMapper.readTree(stale.getBody()).get("doctors").size());
+		verify(doctorService, times(2)).getDoctors();
+	}
+
+	@Test
+	void gzipOnlyWhenAcceptedAndBothVaryOnAcceptEncoding() throws IOException {
+		ResponseEntity<byte[]> identity = directoryResponse.respond(null, null);
+		ResponseEntity<byte[]> gzip = directoryResponse.respond(null, "deflate, GZIP;q=0.8");
+
+		assertNull(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), identity.getHeaders().getVary());
+		assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), gzip.getHeaders().getVary());
+		assertEquals(identity.getHeaders().getETag(), gzip.getHeaders().getETag());
+		assertArrayEquals(identity.getBody(), gunzip(gzip.getBody()));
+		assertTrue(new String(identity.getBody(), StandardCharsets.UTF_8).contains("Dr First"));
+	}
+
+	@Test
+	void availabilityETagFollowsBookingAndCancel() {
+		LocalDate day = LocalDate.now().plusDays(1);
+		Doctor doctor = new Doctor("Dr Slots", "General", "slots@clinic.com", "secret1", "5550000000",
+				List.of("09:00-10:00", "10:00-11:00"));
+		doctor.setId(1L);
+		DoctorRepository doctorRepository = mock(DoctorRepository.class);
+		when(doctorRepository.findById(anyLong())).thenReturn(Optional.of(doctor));
+		AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+		when(appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(eq(1L), any(), any())).thenReturn(List.of());
+		DoctorSlotIndex slotIndex = new DoctorSlotIndex(doctorRepository, appointmentRepository,
+				new PrimaryReads(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(slotIndex, "maxDays", 100);
+
+		DoctorSlotIndex.Availability open = slotIndex.availability(1L, day);
+		assertEquals(open, slotIndex.availability(1L, day));
+
+		slotIndex.onBooked(new Appointment(doctor, null, day.atTime(9, 0), 0));
+		DoctorSlotIndex.Availability booked = slotIndex.availability(1L, day);
+		assertNotEquals(open.etag(), booked.etag());
+		assertEquals(List.of("10:00-11:00"), booked.free());
+
+		slotIndex.onReleased(1L, day);
+		DoctorSlotIndex.Availability canceled = slotIndex.availability(1L, day);
+		assertEquals(open.etag(), canceled.etag());
+		assertTrue(ETags.matches(open.etag(), canceled.etag()));
+		verify(appointmentRepository, times(2)).findByDoctorIdAndAppointmentTimeBetween(eq(1L), any(), any());
+	}
+
+	private static Doctor doctor(Long id, String name) {
+		Doctor doctor = new Doctor(name, "General", "doctor" + id + "@clinic.com", "secret1", "5550000000", List.of("09:00-10:00"));
+		doctor.setId(id);
+		return doctor;
+	}
+
+	private static byte[] gunzip(byte[] bytes) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return in.readAllBytes();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.SqlStatementCounter;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Doctors and their finder results come from the second-level cache across sessions until evicted
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+		"spring.jpa.properties.hibernate.cache.use_query_cache=true",
+		"spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+		"spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+		"spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+		"spring.jpa.properties.jakarta.persistence.sharedCache.mode=ENABLE_SELECTIVE",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DoctorCache.class, SqlStatementCounter.class})
+class DoctorCacheTests {
+
+	@Autowired
+	private DoctorCache doctorCache;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private SqlStatementCounter counter;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Doctor first;
+	private Doctor second;
+
+	@BeforeEach
+	void setUp() {
+		doctorRepository.deleteAll();
+		first = doctorRepository.save(new Doctor("Dr Cached", "Cardiology", "cached@clinic.com", "secret1", "5550004444", List.of("09:00-10:00")));
+		second = doctorRepository.save(new Doctor("Dr Other", "Neurology", "other@clinic.com", "secret1", "5550005555", List.of("14:00-15:00")));
+
+		doctorCache.evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void secondLookupIsAHitWithoutAStatement() {
+		assertEquals(1, statements(() -> doctorRepository.findById(first.getId())));
+		assertEquals(0, statements(() -> doctorRepository.findById(first.getId())));
+
+		CacheRegionStatistics region = entityRegion();
+		assertEquals(1, region.getMissCount());
+		assertEquals(1, region.getHitCount());
+		assertEquals(0.5, doctorCache.getEntityHitRatio());
+	}
+
+	@Test
+	void evictDropsOnlyThatDoctor() {
+		doctorRepository.findById(first.getId());
+		doctorRepository.findById(second.getId());
+
+		doctorCache.evict(first.getId());
+
+		assertEquals(1, statements(() -> doctorRepository.findById(first.getId())));
+		assertEquals(0, statements(() -> doctorRepository.findById(second.getId())));
+		assertEquals(3, entityRegion().getMissCount());
+		assertEquals(1, entityRegion().getHitCount());
+	}
+
+	@Test
+	void evictAllDropsEveryDoctor() {
+		doctorRepository.findById(first.getId());
+		doctorRepository.findById(second.getId());
+
+		doctorCache.evictAll();
+
+		assertEquals(1, statements(() -> doctorRepository.findById(first.getId())));
+		assertEquals(1, statements(() -> doctorRepository.findById(second.getId())));
+		assertEquals(4, entityRegion().getMissCount());
+		assertEquals(0, entityRegion().getHitCount());
+	}
+
+	@Test
+	void finderResultsAreCachedUntilAnEviction() {
+		assertEquals(1, statements(() -> doctorRepository.findByEmail("cached@clinic.com")));
+		assertEquals(0, statements(() -> doctorRepository.findByEmail("cached@clinic.com")));
+		assertEquals(1, queryRegion().getHitCount());
+		assertEquals(0.5, doctorCache.getQueryHitRatio());
+
+		doctorCache.evict(second.getId());
+
+		assertEquals(1, statements(() -> doctorRepository.findByEmail("cached@clinic.com")));
+		assertEquals(2, queryRegion().getMissCount());
+	}
+
+	private int statements(Runnable block) {
+		return counter.count(block).getStatements();
+	}
+
+	private CacheRegionStatistics entityRegion() {
+		return statistics.getDomainDataRegionStatistics(DoctorCache.REGION);
+	}
+
+	private CacheRegionStatistics queryRegion() {
+		return statistics.getQueryRegionStatistics(DoctorCache.QUERY_REGION);
+	}
+}
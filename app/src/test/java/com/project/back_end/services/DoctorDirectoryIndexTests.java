@@ -0,0 +1,105 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Name substrings, specialty and AM/PM filters, and how writes reach an already loaded directory
+class DoctorDirectoryIndexTests {
+
+	private DoctorRepository doctorRepository;
+	private DoctorDirectoryIndex index;
+	private final List<Doctor> stored = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		doctorRepository = mock(DoctorRepository.class);
+		when(doctorRepository.findAll()).thenAnswer(inv -> new ArrayList<>(stored));
+		index = new DoctorDirectoryIndex(doctorRepository, new PrimaryReads(mock(PlatformTransactionManager.class)));
+
+		stored.add(doctor(1L, "Alice Johnson", "Cardiology", "09:00-10:00"));
+		stored.add(doctor(2L, "Bob Johnston", "Dermatology", "14:00-15:00"));
+		stored.add(doctor(3L, "Carol Jones", "cardiology", "09:00-10:00", "15:00-16:00"));
+		stored.add(doctor(4L, "Al", "Neurology", "10:00-11:00"));
+	}
+
+	@Test
+	void nameMatchesAnySubstringIgnoringCase() {
+		assertEquals(List.of(1L, 2L), ids(index.search("JOHNS", null, null)));
+		assertEquals(List.of(1L, 2L, 3L), ids(index.search("o", "", " ")));
+		assertEquals(List.of(1L, 4L), ids(index.search("al", null, null)));
+		assertEquals(List.of(), ids(index.search("nhoj", null, null)));
+	}
+
+	@Test
+	void filtersCombineAsAnIntersection() {
+		assertEquals(List.of(1L, 3L), ids(index.search(null, " Cardiology ", null)));
+		assertEquals(List.of(2L, 3L), ids(index.search(null, null, "pm")));
+		assertEquals(List.of(3L), ids(index.search("jon", "cardiology", "PM")));
+		assertEquals(List.of(1L), ids(index.search("john", "cardiology", "AM")));
+		assertEquals(List.of(), ids(index.search(null, null, "evening")));
+		assertEquals(4, index.search(null, null, null).size());
+	}
+
+	@Test
+	void savesAndDeletesReachTheLoadedIndex() {
+		index.search(null, null, null);
+		long version = index.version();
+
+		index.onSaved(doctor(2L, "Bob Johnston", "Cardiology", "09:00-10:00"));
+		index.onSaved(doctor(5L, "Dana Johns", "Oncology", "16:00-17:00"));
+		index.onDeleted(1L);
+
+		assertEquals(List.of(2L, 5L), ids(index.search("johns", null, null)));
+		assertEquals(List.of(2L, 3L), ids(index.search(null, "cardiology", null)));
+		assertEquals(List.of(3L, 5L), ids(index.search(null, null, "PM")));
+		assertNull(index.search(null, "Oncology", null).get(0).getPassword());
+		assertEquals(version + 3, index.version());
+		verify(doctorRepository, times(1)).findAll();
+	}
+
+	@Test
+	void loadRacingAWriteIsRetried() {
+		// The first load reads the table just before a doctor is saved, so it misses it
+		when(doctorRepository.findAll()).thenAnswer(inv -> {
+			List<Doctor> before = new ArrayList<>(stored);
+			Doctor added = doctor(6L, "Eve Johnson", "Cardiology", "09:00-10:00");
+			stored.add(added);
+			index.onSaved(added);
+			return before;
+		}).thenAnswer(inv -> new ArrayList<>(stored));
+
+		assertEquals(List.of(1L, 6L), ids(index.search("johnson", null, null)));
+		verify(doctorRepository, times(2)).findAll();
+	}
+
+	@Test
+	void clearReloadsFromTheRepository() {
+		index.search(null, null, null);
+		stored.remove(0);
+
+		index.clear();
+
+		assertEquals(List.of(2L, 3L, 4L), ids(index.search(null, null, null)));
+		verify(doctorRepository, times(2)).findAll();
+	}
+
+	private static Doctor doctor(Long id, String name, String specialty, String... times) {
+		Doctor doctor = new Doctor(name, specialty, name.replace(' ', '.') + "@clinic.com", "secret1", "5550000000", List.of(times));
+		doctor.setId(id);
+		return doctor;
+	}
+
+	private static List<Long> ids(List<Doctor> doctors) {
+		return doctors.stream().map(Doctor::getId).sorted().toList();
+	}
+}
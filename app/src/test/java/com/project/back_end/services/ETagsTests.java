@@ -0,0 +1,23 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTests {
+
+	@Test
+	void weakAndStrongFormsMatchTheSameTag() {
+		assertTrue(ETags.matches("W/\"a-1\"", "W/\"a-1\""));
+		assertTrue(ETags.matches("\"a-1\"", "W/\"a-1\""));
+		assertTrue(ETags.matches("\"x\", W/\"a-1\"", "W/\"a-1\""));
+		assertTrue(ETags.matches("*", "W/\"a-1\""));
+	}
+
+	@Test
+	void missingOrDifferentTagDoesNotMatch() {
+		assertFalse(ETags.matches(null, "W/\"a-1\""));
+		assertFalse(ETags.matches("W/\"a-2\"", "W/\"a-1\""));
+		assertFalse(ETags.matches("W/\"a-1\"", null));
+	}
+}
@@ -0,0 +1,86 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Entries die at their deadline; a full cache purges expired entries first, then trims to 90% of capacity
+class ExpiringCacheTests {
+
+	private final AtomicLong now = new AtomicLong(1_000);
+
+	@Test
+	void entryExpiresExactlyAtItsDeadline() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+		cache.put("a", "value", 1_100);
+
+		now.set(1_099);
+		assertEquals("value", cache.get("a"));
+		now.set(1_100);
+		assertNull(cache.get("a"));
+
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	void alreadyExpiredPutIsIgnored() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+
+		cache.put("a", "value", 1_000);
+
+		assertEquals(0, cache.size());
+		assertNull(cache.get("a"));
+	}
+
+	@Test
+	void fullCacheTrimsToNinetyPercentBeforeAdding() {
+		ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(100, now::get);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i, 5_000);
+		}
+		assertEquals(100, cache.size());
+		assertEquals(0, cache.getEvictionCount());
+
+		cache.put(100, 100, 5_000);
+
+		assertEquals(91, cache.size());
+		assertEquals(10, cache.getEvictionCount());
+		assertEquals(100, cache.get(100));
+	}
+
+	@Test
+	void expiredEntriesAreDroppedBeforeLiveOnes() {
+		ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(10, now::get);
+		for (int i = 0; i < 10; i++) {
+			cache.put(i, i, i < 5 ? 1_100 : 5_000);
+		}
+		now.set(2_000);
+
+		cache.put(10, 10, 5_000);
+
+		assertEquals(6, cache.size());
+		assertEquals(5, cache.getEvictionCount());
+		for (int i = 5; i <= 10; i++) {
+			assertEquals(i, cache.get(i));
+		}
+	}
+
+	@Test
+	void overwritingAKeyInAFullCacheEvictsNothing() {
+		ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(10, now::get);
+		for (int i = 0; i < 10; i++) {
+			cache.put(i, i, 5_000);
+		}
+
+		cache.put(3, 33, 5_000);
+
+		assertEquals(10, cache.size());
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals(33, cache.get(3));
+	}
+}
@@ -0,0 +1,102 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// A load is dropped only when a write for the same doctor commits while it runs, not on any write anywhere
+class IndexLoadRaceTests {
+
+	private static final Long DOCTOR = 1L;
+	private static final Long OTHER_DOCTOR = 2L;
+
+	private AppointmentRepository appointmentRepository;
+	private DoctorSlotIndex slotIndex;
+	private AppointmentIntervalIndex intervalIndex;
+	private final LocalDate day = LocalDate.now().plusDays(1);
+
+	@BeforeEach
+	void setUp() {
+		appointmentRepository = mock(AppointmentRepository.class);
+		DoctorRepository doctorRepository = mock(DoctorRepository.class);
+		when(doctorRepository.findById(anyLong())).thenAnswer(inv -> Optional.of(
+				new Doctor("Dr Race", "General", "race@clinic.com", "secret1", "5550000000", List.of("09:00-10:00"))));
+		slotIndex = new DoctorSlotIndex(doctorRepository, appointmentRepository, new PrimaryReads(mock(PlatformTransactionManager.class)));
+		intervalIndex = new AppointmentIntervalIndex(appointmentRepository);
+	}
+
+	@Test
+	void slotLoadSurvivesAWriteForAnotherDoctor() {
+		when(appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(eq(DOCTOR), any(), any())).thenAnswer(inv -> {
+			slotIndex.onReleased(OTHER_DOCTOR, day);
+			return List.of();
+		});
+
+		slotIndex.bookedBits(DOCTOR, day);
+		slotIndex.bookedBits(DOCTOR, day);
+
+		verify(appointmentRepository, times(1)).findByDoctorIdAndAppointmentTimeBetween(eq(DOCTOR), any(), any());
+	}
+
+	@Test
+	void slotLoadRacingAWriteForTheSameDoctorIsNotKept() {
+		when(appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(eq(DOCTOR), any(), any()))
+				.thenAnswer(inv -> {
+					slotIndex.onReleased(DOCTOR, day);
+					return List.of();
+				})
+				.thenReturn(List.of(booked(DOCTOR, day.atTime(9, 0))));
+
+		assertEquals(0L, slotIndex.bookedBits(DOCTOR, day));
+		assertNotEquals(0L, slotIndex.bookedBits(DOCTOR, day));
+		assertEquals(List.of(), slotIndex.availableSlots(DOCTOR, day));
+	}
+
+	@Test
+	void intervalLoadSurvivesAWriteForAnotherDoctor() {
+		when(appointmentRepository.findIntervalsByDoctorIdAndAppointmentTimeGreaterThanEqual(eq(DOCTOR), any())).thenAnswer(inv -> {
+			intervalIndex.onRemoved(OTHER_DOCTOR, 99L);
+			return List.of();
+		});
+
+		intervalIndex.hasOverlap(DOCTOR, day.atTime(9, 0), day.atTime(10, 0), null);
+		intervalIndex.hasOverlap(DOCTOR, day.atTime(9, 0), day.atTime(10, 0), null);
+
+		verify(appointmentRepository, times(1)).findIntervalsByDoctorIdAndAppointmentTimeGreaterThanEqual(eq(DOCTOR), any());
+	}
+
+	@Test
+	void intervalLoadRacingAWriteForTheSameDoctorIsNotKept() {
+		when(appointmentRepository.findIntervalsByDoctorIdAndAppointmentTimeGreaterThanEqual(eq(DOCTOR), any())).thenAnswer(inv -> {
+			intervalIndex.onRemoved(DOCTOR, 99L);
+			return List.of();
+		});
+
+		intervalIndex.hasOverlap(DOCTOR, day.atTime(9, 0), day.atTime(10, 0), null);
+		intervalIndex.hasOverlap(DOCTOR, day.atTime(9, 0), day.atTime(10, 0), null);
+
+		verify(appointmentRepository, times(2)).findIntervalsByDoctorIdAndAppointmentTimeGreaterThanEqual(eq(DOCTOR), any());
+	}
+
+	private static Appointment booked(Long doctorId, LocalDateTime time) {
+		Doctor doctor = new Doctor();
+		doctor.setId(doctorId);
+		return new Appointment(doctor, null, time, 0);
+	}
+}
@@ -0,0 +1,54 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Cursors round-trip, and a cursor is only accepted by a listing sorted the same way
+class PageCursorTests {
+
+	@Test
+	void timedAndIdCursorsRoundTrip() {
+		PageCursor timed = new PageCursor(LocalDateTime.of(2030, 1, 2, 9, 30), 42);
+		PageCursor byId = PageCursor.afterId(7);
+
+		assertEquals(timed, PageCursor.decode(timed.encode(), true));
+		assertEquals(byId, PageCursor.decode(byId.encode(), false));
+	}
+
+	@Test
+	void blankTokenMeansTheFirstPage() {
+		assertNull(PageCursor.decode(null, true));
+		assertNull(PageCursor.decode(" ", false));
+	}
+
+	@Test
+	void cursorOfTheOtherKindIsRejected() {
+		String doctorCursor = PageCursor.afterId(7).encode();
+		String appointmentCursor = new PageCursor(LocalDateTime.of(2030, 1, 2, 9, 30), 42).encode();
+
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(doctorCursor, true));
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(appointmentCursor, false));
+	}
+
+	@Test
+	void unreadableCursorIsRejected() {
+		String noSeparator = Base64.getUrlEncoder().encodeToString("12".getBytes(StandardCharsets.UTF_8));
+		String badTime = Base64.getUrlEncoder().encodeToString("yesterday|12".getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("%%%", false));
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(noSeparator, false));
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(badTime, true));
+	}
+
+	@Test
+	void sizeIsClamped() {
+		assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(null));
+		assertEquals(1, PageCursor.clampSize(0));
+		assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.clampSize(10_000));
+	}
+}
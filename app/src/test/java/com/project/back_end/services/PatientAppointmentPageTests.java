@@ -0,0 +1,104 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Keyset pages of a patient's appointments: no row skipped or repeated across pages, even on equal times
+@DataJpaTest
+@Import(PatientService.class)
+class PatientAppointmentPageTests {
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@MockitoBean
+	private TokenService tokenService;
+
+	private Patient patient;
+	private final List<Long> expected = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		patient = entityManager.persist(new Patient("Paged Patient", "paged@mail.com", "secret1", "5551230000", "Main St"));
+		LocalDateTime base = LocalDate.now().plusDays(2).atTime(9, 0);
+		// Two doctors share each time, so pages must break ties on id
+		for (int d = 0; d < 2; d++) {
+			Doctor doctor = entityManager.persist(new Doctor("Paging Doctor " + d, "General", "paging" + d + "@clinic.com",
+					"secret1", String.format("555100%04d", d), List.of("09:00-10:00")));
+			for (int day = 0; day < 3; day++) {
+				entityManager.persist(new Appointment(doctor, patient, base.plusDays(day), 0));
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		patientService.getPatientAppointment(patient.getId(), false).stream()
+				.sorted(Comparator.comparing(AppointmentDTO::getAppointmentTime).thenComparing(AppointmentDTO::getId))
+				.forEach(a -> expected.add(a.getId()));
+		assertEquals(6, expected.size());
+	}
+
+	@Test
+	void pagesCoverEveryRowOnceInOrder() {
+		assertEquals(expected, walk(4));
+	}
+
+	@Test
+	void lastFullPageHasNoNextCursor() {
+		Map<String, Object> first = patientService.getPatientAppointmentPage(patient.getId(), null, 3);
+		Map<String, Object> second = patientService.getPatientAppointmentPage(patient.getId(), (String) first.get("nextCursor"), 3);
+
+		assertEquals(3, appointments(second).size());
+		assertNull(second.get("nextCursor"));
+		assertEquals(expected, walk(3));
+		assertEquals(expected, walk(1));
+	}
+
+	@Test
+	void doctorListingCursorIsRejected() {
+		String doctorCursor = PageCursor.afterId(expected.get(0)).encode();
+
+		assertThrows(IllegalArgumentException.class,
+				() -> patientService.getPatientAppointmentPage(patient.getId(), doctorCursor, 3));
+	}
+
+	private List<Long> walk(int size) {
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			Map<String, Object> page = patientService.getPatientAppointmentPage(patient.getId(), cursor, size);
+			List<AppointmentDTO> rows = appointments(page);
+			assertTrue(rows.size() <= size);
+			rows.forEach(a -> seen.add(a.getId()));
+			cursor = (String) page.get("nextCursor");
+		} while (cursor != null);
+		return seen;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<AppointmentDTO> appointments(Map<String, Object> page) {
+		return (List<AppointmentDTO>) page.get("appointments");
+	}
+}
@@ -0,0 +1,78 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A patient's history across several doctors must load in a single SQL statement per table it reads
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(PatientService.class)
+class PatientAppointmentQueryCountTests {
+
+	private static final int DOCTORS = 5;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockitoBean
+	private TokenService tokenService;
+
+	private Patient patient;
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		patient = entityManager.persist(new Patient("History Patient", "history@mail.com", "secret1", "5551234567", "Main St"));
+		for (int i = 0; i < DOCTORS; i++) {
+			Doctor doctor = entityManager.persist(new Doctor("Doctor " + i, "General", "doc" + i + "@clinic.com",
+					"secret1", String.format("555000%04d", i), List.of("09:00-10:00", "14:00-15:00")));
+			entityManager.persist(new Appointment(doctor, patient, LocalDate.now().plusDays(i + 1).atTime(9, 0), i % 2));
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void patientHistoryIsOneStatement() {
+		List<AppointmentDTO> history = patientService.getPatientAppointment(patient.getId());
+
+		assertEquals(DOCTORS, history.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	void filteredHistoryIsOneStatement() {
+		List<AppointmentDTO> past = patientService.filterByDoctorAndCondition(patient.getId(), "doctor", "past");
+
+		// "past" asks for history, so the archive is read too: one statement each
+		assertEquals(DOCTORS / 2, past.size());
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,252 @@
+package com.project.back_end.services;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.PrescriptionOutbox;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.PrescriptionOutboxRepository;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Submit commits the status change with the outbox row; the relay copies rows to Mongo with backoff,
+// and a duplicate only counts as delivered when it is the row's own earlier attempt
+@DataJpaTest(properties = "prescription.outbox.max-attempts=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({PrescriptionOutboxService.class, PrescriptionOutboxBackfill.class})
+class PrescriptionOutboxServiceTests {
+
+	@Autowired
+	private PrescriptionOutboxService outboxService;
+
+	@Autowired
+	private PrescriptionOutboxBackfill backfill;
+
+	@Autowired
+	private PrescriptionOutboxRepository outboxRepository;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@MockitoBean
+	private MongoTemplate mongoTemplate;
+
+	@MockitoBean
+	private PrescriptionService prescriptionService;
+
+	private BulkOperations bulk;
+	private Appointment appointment;
+
+	@BeforeEach
+	void setUp() {
+		outboxRepository.deleteAll();
+		appointmentRepository.deleteAll();
+		doctorRepository.deleteAll();
+		patientRepository.deleteAll();
+
+		Doctor doctor = doctorRepository.save(new Doctor("Dr Outbox", "General", "outbox@clinic.com",
+				"secret1", "5550002222", List.of("09:00-10:00")));
+		Patient patient = patientRepository.save(new Patient("Outbox Patient", "outbox@mail.com", "secret1", "5552223333", "Main St"));
+		appointment = appointmentRepository.save(new Appointment(doctor, patient, LocalDate.now().plusDays(1).atTime(9, 0), 0));
+
+		bulk = mock(BulkOperations.class);
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Prescription.class))).thenReturn(bulk);
+		when(bulk.insert(anyList())).thenReturn(bulk);
+	}
+
+	@Test
+	void submitCompletesTheAppointmentAndQueuesTheRow() {
+		assertEquals(1, outboxService.submit(prescription()));
+
+		assertEquals(PrescriptionOutboxService.STATUS_COMPLETED, appointmentRepository.findById(appointment.getId()).orElseThrow().getStatus());
+		PrescriptionOutbox entry = single();
+		assertEquals(PrescriptionOutbox.PENDING, entry.getStatus());
+		assertNotNull(entry.getPayload());
+		verify(prescriptionService).cachePrescription(any(Prescription.class));
+		verifyNoInteractions(mongoTemplate);
+	}
+
+	@Test
+	void submitRejectsAPrescriptionWhoseRowWasRelayed() {
+		outboxService.submit(prescription());
+		outboxService.relayBatch();
+		appointmentRepository.updateStatus(0, appointment.getId());
+		clearInvocations(prescriptionService);
+
+		assertEquals(-1, outboxService.submit(prescription()));
+
+		assertEquals(0, appointmentRepository.findById(appointment.getId()).orElseThrow().getStatus());
+		assertEquals(PrescriptionOutbox.SENT, single().getStatus());
+		verify(prescriptionService, never()).cachePrescription(any());
+	}
+
+	@Test
+	void backfillTombstonesPrescriptionsSavedBeforeTheOutbox() {
+		when(mongoTemplate.stream(any(Query.class), eq(Prescription.class))).thenReturn(Stream.of(prescription()));
+
+		assertEquals(1, backfill.backfill());
+
+		PrescriptionOutbox entry = single();
+		assertEquals(PrescriptionOutbox.SENT, entry.getStatus());
+		assertNull(entry.getPayload());
+		assertEquals(-1, outboxService.submit(prescription()));
+		assertEquals(0, appointmentRepository.findById(appointment.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void backfillSkipsAppointmentsThatAlreadyHaveARow() {
+		outboxService.submit(prescription());
+		Prescription legacy = prescription();
+		legacy.setAppointmentId(appointment.getId() + 1000);
+		when(mongoTemplate.stream(any(Query.class), eq(Prescription.class)))
+				.thenReturn(Stream.of(prescription(), legacy))
+				.thenReturn(Stream.of(prescription(), legacy));
+
+		assertEquals(1, backfill.backfill());
+		assertEquals(0, backfill.backfill());
+
+		assertEquals(2, outboxRepository.count());
+		assertEquals(1, outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+				PrescriptionOutbox.PENDING, LocalDateTime.now(), Limit.of(10)).size());
+	}
+
+		assertEquals(0, appointmentRepository.findById(appointment.getId()).orElseThrow().getStatus());
+		assertEquals(0, outboxRepository.count());
+		verify(prescriptionService, never()).cachePrescription(any());
+	}
+
+	@Test
+	void submitRejectsASecondPrescriptionAndUnknownAppointments() {
+		assertEquals(1, outboxService.submit(prescription()));
+		assertEquals(-1, outboxService.submit(prescription()));
+
+		Prescription orphan = prescription();
+		orphan.setAppointmentId(appointment.getId() + 1000);
+		assertEquals(-2, outboxService.submit(orphan));
+		assertEquals(1, outboxRepository.count());
+	}
+
+	@Test
+	void relayInsertsWithTheRowIdAndMarksItSent() {
+		outboxService.submit(prescription());
+
+		assertEquals(1, outboxService.relayBatch());
+
+		PrescriptionOutbox entry = single();
+		assertEquals(PrescriptionOutbox.SENT, entry.getStatus());
+		assertNull(entry.getPayload());
+		assertEquals(PrescriptionOutboxService.documentId(entry), inserted().getId());
+		verify(prescriptionService).evictPrescription(appointment.getId());
+		assertEquals(0, outboxService.relayBatch());
+	}
+
+	@Test
+	void failedRelayBacksOffThenGivesUp() {
+		when(bulk.execute()).thenThrow(new IllegalStateException("mongo down"));
+		outboxService.submit(prescription());
+
+		outboxService.relayBatch();
+		PrescriptionOutbox entry = single();
+		assertEquals(PrescriptionOutbox.PENDING, entry.getStatus());
+		assertEquals(1, entry.getAttempts());
+		assertEquals("mongo down", entry.getLastError());
+		assertTrue(entry.getNextAttemptAt().isAfter(LocalDateTime.now()));
+		assertEquals(0, outboxService.relayBatch());
+
+		entry.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+		outboxRepository.save(entry);
+		outboxService.relayBatch();
+		assertEquals(PrescriptionOutbox.FAILED, single().getStatus());
+		assertEquals(2, single().getAttempts());
+	}
+
+	@Test
+	void duplicateOfItsOwnEarlierAttemptCountsAsDelivered() {
+		outboxService.submit(prescription());
+		failWithDuplicateKey();
+		Prescription stored = prescription();
+		stored.setId(PrescriptionOutboxService.documentId(single()));
+		when(mongoTemplate.find(any(Query.class), eq(Prescription.class))).thenReturn(List.of(stored));
+
+		outboxService.relayBatch();
+
+		assertEquals(PrescriptionOutbox.SENT, single().getStatus());
+	}
+
+	@Test
+	void duplicateOfAnotherPrescriptionFailsTheRow() {
+		outboxService.submit(prescription());
+		failWithDuplicateKey();
+		Prescription other = prescription();
+		other.setId("65f000000000000000000abc");
+		when(mongoTemplate.find(any(Query.class), eq(Prescription.class))).thenReturn(List.of(other));
+
+		outboxService.relayBatch();
+
+		PrescriptionOutbox entry = single();
+		assertEquals(PrescriptionOutbox.FAILED, entry.getStatus());
+		assertEquals("Another prescription already exists for this appointment", entry.getLastError());
+		verify(prescriptionService).evictPrescription(appointment.getId());
+	}
+
+	private void failWithDuplicateKey() {
+		BulkOperationException duplicate = mock(BulkOperationException.class);
+		when(duplicate.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0)));
+		when(bulk.execute()).thenThrow(duplicate);
+	}
+
+	private Prescription prescription() {
+		return new Prescription("Outbox Patient", appointment.getId(), "Amoxicillin", "500mg", "Twice a day");
+	}
+
+	private PrescriptionOutbox single() {
+		List<PrescriptionOutbox> all = outboxRepository.findAll();
+		assertEquals(1, all.size());
+		return all.get(0);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Prescription inserted() {
+		ArgumentCaptor<List<Prescription>> documents = ArgumentCaptor.forClass((Class) List.class);
+		verify(bulk).insert(documents.capture());
+		return documents.getValue().get(0);
+	}
+}
@@ -0,0 +1,124 @@
+package com.project.back_end.services;
+
+import com.project.back_end.controllers.PrescriptionController;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.PrescriptionRepository;
+import com.project.back_end.repo.ReactivePrescriptionRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Reactive prescription reads: cache hits merged with one $in query, 404 on a miss, 504 when Mongo is too slow
+class PrescriptionReactiveTests {
+
+	private ReactivePrescriptionRepository reactiveRepository;
+	private PrescriptionService prescriptionService;
+
+	@BeforeEach
+	void setUp() {
+		reactiveRepository = mock(ReactivePrescriptionRepository.class);
+		prescriptionService = new PrescriptionService(mock(PrescriptionRepository.class), reactiveRepository, 100, 600, 200);
+	}
+
+	@Test
+	void singleReadIsCachedAfterTheFirstLookup() {
+		when(reactiveRepository.findByAppointmentId(1L)).thenReturn(Flux.just(prescription(1L)));
+
+		assertEquals(HttpStatus.OK, prescriptionService.getPrescriptionReactive(1L).block().getStatusCode());
+		ResponseEntity<Map<String, Object>> second = prescriptionService.getPrescriptionReactive(1L).block();
+
+		assertEquals(1L, ((Prescription) second.getBody().get("prescription")).getAppointmentId());
+		verify(reactiveRepository, times(1)).findByAppointmentId(1L);
+	}
+
+	@Test
+	void missingPrescriptionIsNotFoundAndNotCached() {
+		when(reactiveRepository.findByAppointmentId(1L)).thenReturn(Flux.empty());
+
+		ResponseEntity<Map<String, Object>> response = prescriptionService.getPrescriptionReactive(1L).block();
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertEquals("No prescription found for the specified appointment.", response.getBody().get("message"));
+		assertNull(prescriptionService.getPrescriptionCache().get(1L));
+	}
+
+	@Test
+	void batchQueriesOnlyTheCacheMisses() {
+		prescriptionService.cachePrescription(prescription(1L));
+		when(reactiveRepository.findByAppointmentIdIn(anyCollection())).thenReturn(Flux.just(prescription(3L)));
+
+		ResponseEntity<Map<String, Object>> response = prescriptionService.getPrescriptionsReactive(List.of(1L, 2L, 3L, 2L)).block();
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(List.of(1L, 3L), appointmentIds(response));
+		verify(reactiveRepository).findByAppointmentIdIn(eq(Set.of(2L, 3L)));
+		assertNotNull(prescriptionService.getPrescriptionCache().get(3L));
+	}
+
+	@Test
+	void batchOfCacheHitsSkipsMongo() {
+		prescriptionService.cachePrescription(prescription(1L));
+		prescriptionService.cachePrescription(prescription(2L));
+
+		ResponseEntity<Map<String, Object>> response = prescriptionService.getPrescriptionsReactive(List.of(2L, 1L)).block();
+
+		assertEquals(List.of(2L, 1L), appointmentIds(response));
+		verifyNoInteractions(reactiveRepository);
+	}
+
+	@Test
+	void slowMongoIsAGatewayTimeout() {
+		when(reactiveRepository.findByAppointmentId(1L)).thenReturn(Flux.never());
+		when(reactiveRepository.findByAppointmentIdIn(anyCollection())).thenReturn(Flux.never());
+
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, prescriptionService.getPrescriptionReactive(1L).block().getStatusCode());
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, prescriptionService.getPrescriptionsReactive(List.of(1L)).block().getStatusCode());
+	}
+
+	@Test
+	void driverErrorIsAnInternalServerError() {
+		when(reactiveRepository.findByAppointmentId(1L)).thenReturn(Flux.error(new IllegalStateException("mongo down")));
+
+		ResponseEntity<Map<String, Object>> response = prescriptionService.getPrescriptionReactive(1L).block();
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+		assertEquals("Internal server error while fetching prescription.", response.getBody().get("error"));
+	}
+
+	@Test
+	void batchEndpointCapsTheIdList() {
+		Service service = mock(Service.class);
+		when(service.authorize(any(), anyString())).thenReturn(new AuthPrincipal("token", "doc@clinic.com", 1L, "doctor"));
+		PrescriptionService mockedService = mock(PrescriptionService.class);
+		PrescriptionController controller = new PrescriptionController(mockedService, service, mock(PrescriptionOutboxService.class));
+
+		List<Long> tooMany = LongStream.rangeClosed(1, 101).boxed().toList();
+		assertEquals(HttpStatus.BAD_REQUEST, controller.getPrescriptionsReactive(tooMany, "token").block().getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, controller.getPrescriptionsReactive(List.of(), "token").block().getStatusCode());
+		verifyNoInteractions(mockedService);
+	}
+
+	private static Prescription prescription(Long appointmentId) {
+		return new Prescription("Reactive Patient", appointmentId, "Amoxicillin", "500mg", "Twice a day");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Long> appointmentIds(ResponseEntity<Map<String, Object>> response) {
+		return ((List<Prescription>) response.getBody().get("prescriptions")).stream().map(Prescription::getAppointmentId).toList();
+	}
+}
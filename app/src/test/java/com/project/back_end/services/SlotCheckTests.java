@@ -0,0 +1,76 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// A booking is checked against every slot its duration covers, not just the one it starts in
+class SlotCheckTests {
+
+	private final LocalDate day = LocalDate.now().plusDays(1);
+	private final List<Appointment> booked = new ArrayList<>();
+	private Doctor doctor;
+	private DoctorSlotIndex slotIndex;
+
+	@BeforeEach
+	void setUp() {
+		doctor = new Doctor("Dr Span", "General", "span@clinic.com", "secret1", "5550000000",
+				List.of("09:00-10:00", "10:00-11:00", "14:00-15:00"));
+		doctor.setId(1L);
+		DoctorRepository doctorRepository = mock(DoctorRepository.class);
+		when(doctorRepository.findById(anyLong())).thenReturn(Optional.empty());
+		when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+		AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+		when(appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(eq(1L), any(), any())).thenAnswer(inv -> booked);
+		slotIndex = new DoctorSlotIndex(doctorRepository, appointmentRepository,
+				new PrimaryReads(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(slotIndex, "maxDays", 100);
+	}
+
+	@Test
+	void longVisitNeedsEveryCoveredSlotOffered() {
+		assertEquals(1, check(day.atTime(9, 0), 120));
+		assertEquals(1, check(day.atTime(9, 30), 30));
+		assertEquals(0, check(day.atTime(9, 0), 720));
+		assertEquals(0, check(day.atTime(10, 30), 60));
+	}
+
+	@Test
+	void visitOverlappingABookingIsTaken() {
+		Appointment existing = new Appointment(doctor, null, day.atTime(10, 0), 0);
+		existing.setDurationMinutes(30);
+		booked.add(existing);
+
+		assertEquals(0, check(day.atTime(9, 0), 90));
+		assertEquals(1, check(day.atTime(9, 0), 60));
+		assertEquals(1, check(day.atTime(10, 30), 30));
+	}
+
+	@Test
+	void visitPastMidnightAndUnknownDoctorsAreRefused() {
+		assertEquals(0, check(day.atTime(23, 30), 60));
+		assertEquals(-1, slotIndex.checkSlot(2L, day.atTime(9, 0), day.atTime(10, 0)));
+	}
+
+	private int check(LocalDateTime start, int minutes) {
+		return slotIndex.checkSlot(1L, start, start.plusMinutes(minutes));
+	}
+}
@@ -0,0 +1,86 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// Repository round trips per validateToken call for legacy and claim-carrying tokens; timings are in the JMH TokenServiceBenchmark
+class TokenServiceValidationTests {
+
+	private static final int REQUESTS = 10_000;
+
+	private DoctorRepository doctorRepository;
+	private TokenService tokenService;
+
+	@BeforeEach
+	void setUp() {
+		doctorRepository = mock(DoctorRepository.class);
+		when(doctorRepository.findByEmail(anyString())).thenReturn(new Doctor());
+
+		tokenService = new TokenService(mock(AdminRepository.class), doctorRepository, mock(PatientRepository.class));
+		ReflectionTestUtils.setField(tokenService, "jwtSecret", "$!@#$^%$$$%####$DDCPN0234FCFDPD8670M");
+		ReflectionTestUtils.setField(tokenService, "trustClaims", true);
+		ReflectionTestUtils.setField(tokenService, "cacheMaxSize", 100);
+		ReflectionTestUtils.invokeMethod(tokenService, "init");
+	}
+
+	@Test
+	void legacyTokenQueriesRepositoryOnEveryRequest() {
+		String token = tokenService.generateToken("doc@clinic.com");
+
+		run(token);
+
+		verify(doctorRepository, times(REQUESTS)).findByEmail("doc@clinic.com");
+		assertEquals(REQUESTS, tokenService.getValidationOutcomes().get(TokenService.LOOKUP).sum());
+	}
+
+	@Test
+	void claimTokenNeverQueriesRepository() {
+		String token = tokenService.generateToken("doc@clinic.com", 7L, "doctor");
+
+		run(token);
+
+		verify(doctorRepository, never()).findByEmail(anyString());
+		assertEquals(7L, tokenService.extractUserId(token));
+		assertFalse(tokenService.validateToken(token, "patient"));
+		assertEquals(REQUESTS, tokenService.getValidationOutcomes().get(TokenService.TRUSTED).sum());
+		assertEquals(1, tokenService.getValidationOutcomes().get(TokenService.WRONG_ROLE).sum());
+	}
+
+	@Test
+	void revalidationWindowQueriesRepositoryOncePerWindow() {
+		ReflectionTestUtils.setField(tokenService, "revalidateSeconds", 300L);
+		String token = tokenService.generateToken("doc@clinic.com", 7L, "doctor");
+
+		run(token);
+
+		verify(doctorRepository, times(1)).findByEmail("doc@clinic.com");
+	}
+
+	@Test
+	void repeatedValidationsAreServedFromVerifiedTokenCache() {
+		String token = tokenService.generateToken("doc@clinic.com", 7L, "doctor");
+
+		run(token);
+
+		ExpiringCache<String, ?> cache = tokenService.getVerifiedTokenCache();
+		assertEquals(1, cache.getMissCount());
+		assertEquals(REQUESTS - 1, cache.getHitCount());
+		assertEquals(1, cache.size());
+	}
+
+	private void run(String token) {
+		for (int i = 0; i < REQUESTS; i++) {
+			assertTrue(tokenService.validateToken(token, "doctor"));
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Doctor availability through DoctorSlotIndex: warm (template and day bitmap cached) and
+// cold (slot labels parsed and the day's appointments folded into a bitmap on every call)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+
+    private static final Long DOCTOR_ID = 1L;
+
+    @Param({"2", "8"})
+    public int slots;
+
+    @Param({"0", "4", "10"})
+    public int appointmentsPerDay;
+
+    private DoctorSlotIndex slotIndex;
+    private LocalDate date;
+
+    @Setup
+    public void setUp() {
+        Doctor doctor = Fixtures.doctor(DOCTOR_ID, slots);
+        date = LocalDate.now().plusDays(1);
+        List<Appointment> appointments = Fixtures.appointments(doctor, date.atStartOfDay(), appointmentsPerDay);
+
+        DoctorRepository doctorRepository = Stubs.repository(DoctorRepository.class,
+                Map.of("findById", args -> Optional.of(doctor)));
+        AppointmentRepository appointmentRepository = Stubs.repository(AppointmentRepository.class,
+                Map.of("findByDoctorIdAndAppointmentTimeBetween", args -> appointments));
+        slotIndex = new DoctorSlotIndex(doctorRepository, appointmentRepository, Stubs.primaryReads());
+        Stubs.setField(slotIndex, "maxDays", 50_000);
+    }
+
+    @Benchmark
+    public List<String> availableSlotsWarm() {
+        return slotIndex.availableSlots(DOCTOR_ID, date);
+    }
+
+    @Benchmark
+    public List<String> availableSlotsCold() {
+        slotIndex.clear();
+        return slotIndex.availableSlots(DOCTOR_ID, date);
+    }
+}
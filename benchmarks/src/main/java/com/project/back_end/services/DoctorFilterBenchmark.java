@@ -0,0 +1,47 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// DoctorService.filterDoctorByTime over directory-sized lists, and the AM/PM slot-mask test on its own
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DoctorFilterBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int doctors;
+
+    @Param({"AM", "PM"})
+    public String period;
+
+    private DoctorService doctorService;
+    private List<Doctor> directory;
+
+    @Setup
+    public void setUp() {
+        doctorService = Stubs.doctorService();
+        directory = Fixtures.doctors(doctors);
+    }
+
+    @Benchmark
+    public List<Doctor> filterDoctorByTime() {
+        return doctorService.filterDoctorByTime(directory, period);
+    }
+
+    @Benchmark
+    public void offersPeriod(Blackhole blackhole) {
+        long mask = DoctorService.periodMask(period);
+        for (Doctor doctor : directory) {
+            blackhole.consume(doctor.getSchedule().offersAny(mask));
+        }
+    }
+}
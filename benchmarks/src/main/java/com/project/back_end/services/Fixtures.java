@@ -0,0 +1,70 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic test data shaped like the seed data: a handful of slots per doctor, hourly appointments
+final class Fixtures {
+
+    static final String[] SPECIALTIES = {"Cardiologist", "Dermatologist", "Neurologist", "Pediatrician", "Orthopedic"};
+
+    private static final String[] SLOTS = {
+            "08:00-09:00", "09:00-10:00", "10:00-11:00", "11:00-12:00",
+            "13:00-14:00", "14:00-15:00", "15:00-16:00", "16:00-17:00"};
+
+    private Fixtures() {}
+
+    static List<Doctor> doctors(int count) {
+        Random random = new Random(42);
+        List<Doctor> doctors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> times = new ArrayList<>();
+            int first = random.nextInt(SLOTS.length);
+            int slots = 1 + random.nextInt(4);
+            for (int s = 0; s < slots; s++) {
+                times.add(SLOTS[(first + s) % SLOTS.length]);
+            }
+            Doctor doctor = new Doctor("Dr. Doctor " + i, SPECIALTIES[i % SPECIALTIES.length],
+                    "doctor" + i + "@clinic.com", null, String.format("555%07d", i), times);
+            doctor.setId((long) i + 1);
+            doctors.add(doctor);
+        }
+        return doctors;
+    }
+
+    static Doctor doctor(long id, int slots) {
+        List<String> times = new ArrayList<>();
+        for (int s = 0; s < slots; s++) {
+            times.add(SLOTS[s % SLOTS.length]);
+        }
+        Doctor doctor = new Doctor("Dr. Doctor " + id, SPECIALTIES[0], "doctor" + id + "@clinic.com", null, "5550000000", times);
+        doctor.setId(id);
+        return doctor;
+    }
+
+    static List<Appointment> appointments(Doctor doctor, LocalDateTime day, int count) {
+        List<Appointment> appointments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Patient patient = new Patient("Patient " + i, "patient" + i + "@mail.com", null, "5551234567", i + " Main St");
+            patient.setId((long) i + 1);
+            Appointment appointment = new Appointment(doctor, patient, day.plusHours(8 + i % 10), 0);
+            appointment.setId((long) i + 1);
+            appointments.add(appointment);
+        }
+        return appointments;
+    }
+
+    static AppointmentDTO toDto(Appointment a) {
+        return new AppointmentDTO(a.getId(), a.getDoctor().getId(), a.getDoctor().getName(),
+                a.getPatient().getId(), a.getPatient().getName(), a.getPatient().getEmail(),
+                a.getPatient().getPhone(), a.getPatient().getAddress(),
+                a.getAppointmentTime(), a.getStatus(), a.getDurationMinutes());
+    }
+}
@@ -0,0 +1,66 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// AppointmentDTO construction and Jackson serialization of the doctor and appointment list responses
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"10", "200", "2000"})
+    public int size;
+
+    // Configured like Spring Boot's auto-configured mapper (java.time module, ISO dates)
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<Doctor> doctors;
+    private List<Appointment> appointments;
+    private List<AppointmentDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        doctors = Fixtures.doctors(size);
+        appointments = Fixtures.appointments(doctors.get(0), LocalDate.now().atStartOfDay(), size);
+        dtos = buildDtos();
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> buildDtos() {
+        List<AppointmentDTO> result = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            result.add(Fixtures.toDto(appointment));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serializeDoctors() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of("doctors", doctors));
+    }
+
+    @Benchmark
+    public byte[] serializeAppointments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of("appointments", dtos));
+    }
+}
@@ -0,0 +1,100 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.AppointmentSlotRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Allocation-light stand-ins for Spring wiring, so a benchmark measures the service and not a mock framework
+final class Stubs {
+
+    private Stubs() {}
+
+    // Repository proxy answering the named methods; everything else returns an empty value
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return empty(method);
+        });
+    }
+
+    // PrimaryReads over a transaction manager that does nothing
+    static PrimaryReads primaryReads() {
+        return new PrimaryReads(repository(PlatformTransactionManager.class, Map.of()));
+    }
+
+    // DoctorService over empty repositories and real, empty indexes
+    static DoctorService doctorService() {
+        DoctorRepository doctorRepository = repository(DoctorRepository.class, Map.of());
+        AppointmentRepository appointmentRepository = repository(AppointmentRepository.class, Map.of());
+        return new DoctorService(doctorRepository, appointmentRepository,
+                new TokenService(repository(AdminRepository.class, Map.of()), doctorRepository,
+                        repository(PatientRepository.class, Map.of())),
+                new DoctorSlotIndex(doctorRepository, appointmentRepository, primaryReads()),
+                new AppointmentIntervalIndex(appointmentRepository),
+                repository(AppointmentSlotRepository.class, Map.of()),
+                new DoctorDirectoryIndex(doctorRepository, primaryReads()),
+                new DoctorCache(repository(EntityManagerFactory.class, Map.of())),
+                repository(ArchivedAppointmentRepository.class, Map.of()));
+    }
+
+    // Stand-in for @Value injection
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Stand-in for @PostConstruct
+    static void invoke(Object target, String name) {
+        try {
+            Method method = target.getClass().getDeclaredMethod(name);
+            method.setAccessible(true);
+            method.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object empty(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of();
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return null;
+    }
+}
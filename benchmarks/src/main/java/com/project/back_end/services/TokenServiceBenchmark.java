@@ -0,0 +1,77 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// generateToken, extractEmail and validateToken for legacy (subject-only) and claim-carrying tokens,
+// cycling through a pool of distinct tokens to exercise the verified-token cache
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenServiceBenchmark {
+
+    @Param({"legacy", "claims"})
+    public String tokenKind;
+
+    // 1 = one hot user; larger pools approach a cold cache
+    @Param({"1", "1000", "20000"})
+    public int distinctTokens;
+
+    private TokenService tokenService;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Doctor doctor = Fixtures.doctor(7L, 4);
+        DoctorRepository doctorRepository = Stubs.repository(DoctorRepository.class,
+                Map.of("findByEmail", args -> doctor));
+        tokenService = new TokenService(Stubs.repository(AdminRepository.class, Map.of()), doctorRepository,
+                Stubs.repository(PatientRepository.class, Map.of()));
+        Stubs.setField(tokenService, "jwtSecret", "$!@#$^%$$$%####$DDCPN0234FCFDPD8670M");
+        Stubs.setField(tokenService, "trustClaims", true);
+        Stubs.setField(tokenService, "cacheMaxSize", 10_000);
+        Stubs.invoke(tokenService, "init");
+
+        tokens = new String[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            String email = "doctor" + i + "@clinic.com";
+            tokens[i] = "legacy".equals(tokenKind)
+                    ? tokenService.generateToken(email)
+                    : tokenService.generateToken(email, (long) i, "doctor");
+        }
+    }
+
+    private String nextToken() {
+        String token = tokens[next];
+        next = next + 1 == tokens.length ? 0 : next + 1;
+        return token;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return "legacy".equals(tokenKind)
+                ? tokenService.generateToken("doctor@clinic.com")
+                : tokenService.generateToken("doctor@clinic.com", 7L, "doctor");
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return tokenService.extractEmail(nextToken());
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenService.validateToken(nextToken(), "doctor");
+    }
+}